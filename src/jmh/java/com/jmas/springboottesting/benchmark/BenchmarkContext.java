@@ -0,0 +1,58 @@
+package com.jmas.springboottesting.benchmark;
+
+import com.jmas.springboottesting.SpringBootTestingApplication;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application without a web server and seeds the in-memory database for the benchmarks.
+ */
+final class BenchmarkContext {
+
+    private static final int SEED_CHUNK_SIZE = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start( String... properties ) {
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    // inserts rows employees through the batch path and returns their ids
+    static long[] seed( EmployeeService employeeService, int rows ) {
+        long[] ids = new long[rows];
+        for (int from = 0; from < rows; from += SEED_CHUNK_SIZE) {
+            int to = Math.min(from + SEED_CHUNK_SIZE, rows);
+            List<Employee> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(employee("seed", i));
+            }
+            List<EmployeeBatchResult> results = employeeService.saveEmployees(chunk);
+            for (int i = 0; i < results.size(); i++) {
+                ids[from + i] = results.get(i).id();
+            }
+        }
+        return ids;
+    }
+
+    static Employee employee( String prefix, long i ) {
+        return Employee.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email(prefix + i + "@mail.com")
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.jmas.springboottesting.benchmark;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full table reads: the List based getAllEmployees against the cursor behind the streaming endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeListBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+        BenchmarkContext.seed(employeeService, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EmployeeView> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public void streamAllEmployees( Blackhole blackhole ) {
+        employeeService.streamAllEmployees(blackhole::consume);
+    }
+}
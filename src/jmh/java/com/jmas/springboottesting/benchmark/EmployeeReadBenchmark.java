@@ -0,0 +1,77 @@
+package com.jmas.springboottesting.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One read request end to end, query plus JSON body, through the managed entity and through the
+ * EmployeeView projection. Run with {@code -Djmh.args="EmployeeReadBenchmark -prof gc"} to get
+ * the bytes allocated per request ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeReadBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final int PAGE_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private ObjectMapper objectMapper;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        ids = BenchmarkContext.seed(context.getBean(EmployeeService.class), ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entityById() throws IOException {
+        return objectMapper.writeValueAsBytes(employeeRepository.findById(nextId()).orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] viewById() throws IOException {
+        return objectMapper.writeValueAsBytes(employeeRepository.findViewById(nextId()).orElseThrow());
+    }
+
+    @Benchmark
+    public byte[] entityPage() throws IOException {
+        return objectMapper.writeValueAsBytes(
+                employeeRepository.findByIdGreaterThanOrderByIdAsc(nextId(), PageRequest.ofSize(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public byte[] viewPage() throws IOException {
+        return objectMapper.writeValueAsBytes(
+                employeeRepository.findViewsAfter(nextId(), PageRequest.ofSize(PAGE_SIZE)));
+    }
+
+    private long nextId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,81 @@
+package com.jmas.springboottesting.benchmark;
+
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The custom queries of EmployeeRepository: JPQL against native SQL, positional against named parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        ids = BenchmarkContext.seed(context.getBean(EmployeeService.class), ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int i = nextRow();
+        return employeeRepository.findByJPQL("First" + i, "Last" + i);
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams() {
+        int i = nextRow();
+        return employeeRepository.findByJPQLNamedParams("First" + i, "Last" + i);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQL() {
+        int i = nextRow();
+        return employeeRepository.findByNativeSQL("First" + i, "Last" + i);
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLNamed() {
+        int i = nextRow();
+        return employeeRepository.findByNativeSQLNamed("First" + i, "Last" + i);
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail("seed" + nextRow() + "@mail.com");
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return employeeRepository.findById(ids[nextRow()]);
+    }
+
+    private static int nextRow() {
+        return ThreadLocalRandom.current().nextInt(ROWS);
+    }
+}
@@ -0,0 +1,43 @@
+package com.jmas.springboottesting.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmas.springboottesting.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        // same defaults Spring MVC applies to the mapper behind the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employee = BenchmarkContext.employee("json", 1);
+        employee.setId(1L);
+        json = objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws IOException {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws IOException {
+        return objectMapper.readValue(json, Employee.class);
+    }
+}
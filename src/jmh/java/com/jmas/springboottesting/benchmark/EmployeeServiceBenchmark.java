@@ -0,0 +1,53 @@
+package com.jmas.springboottesting.benchmark;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private final AtomicLong emailSequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        employeeService = context.getBean(EmployeeService.class);
+        ids = BenchmarkContext.seed(employeeService, ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkContext.employee("save", emailSequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<EmployeeView> getEmployeeViewById() {
+        return employeeService.getEmployeeViewById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
@@ -0,0 +1,96 @@
+package com.jmas.springboottesting.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.jmas.springboottesting.dto.EmployeeView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A 10k employee list response in each wire format the controllers negotiate. Besides the time,
+ * the serialize benchmarks report the payload size, raw and gzipped, as the secondary result
+ * {@code bytes}, so sizes end up in the same result file as the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeWireFormatBenchmark {
+
+    private static final TypeReference<List<EmployeeView>> EMPLOYEE_LIST = new TypeReference<>() {};
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"10000"})
+    private int employees;
+
+    private ObjectMapper objectMapper;
+
+    private List<EmployeeView> response;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        // the JSON mapper MVC uses, the binary ones are copies of it as in JacksonConfig
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().modules(new BlackbirdModule()).build();
+        objectMapper = switch (format) {
+            case "smile" -> json.copyWith(new SmileFactory());
+            case "cbor" -> json.copyWith(new CBORFactory());
+            default -> json;
+        };
+        response = LongStream.range(0, employees)
+                .mapToObj(i -> new EmployeeView(i + 1, "First" + i, "Last" + i, "employee" + i + "@mail.com", 0L))
+                .toList();
+        encoded = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serialize( PayloadSize size ) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(response);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<EmployeeView> deserialize() throws IOException {
+        return objectMapper.readValue(encoded, EMPLOYEE_LIST);
+    }
+
+    // what server.compression adds on top of the encoding
+    @Benchmark
+    public byte[] serializeGzipped( PayloadSize size ) throws IOException {
+        byte[] bytes = gzip(objectMapper.writeValueAsBytes(response));
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    private static byte[] gzip( byte[] bytes ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    // EVENTS counters are reported as they are, not per second: the last payload's size
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long bytes;
+    }
+}
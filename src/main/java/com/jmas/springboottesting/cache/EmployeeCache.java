@@ -0,0 +1,210 @@
+package com.jmas.springboottesting.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jmas.springboottesting.dto.EmployeeView;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache in front of the employee lookups, with two keyspaces:
+ * id to employee view and email to id. Writers are expected to call {@link #put(EmployeeView)}
+ * or {@link #evict(long)} so both keyspaces stay consistent. Views are immutable, so cached
+ * instances can be handed to any number of readers. Every write bumps a stamp of the id's stripe,
+ * a load that sees the stamp change while its query ran drops what it read instead of caching it.
+ * Inside a transaction writes are applied again (evictions) or only (puts) after commit, so a
+ * reader that cached the old row while the transaction was open does not keep it, and a rolled
+ * back write is never cached.
+ */
+@Component
+public class EmployeeCache implements MeterBinder {
+
+    private final Cache<Long, EmployeeView> employeesById;
+
+    private final Cache<String, Long> idsByEmail;
+
+    private static final int WRITE_STAMP_STRIPES = 1024;
+
+    private final SingleFlight<Long, Optional<EmployeeView>> loads = new SingleFlight<>();
+
+    private final AtomicLongArray writeStamps = new AtomicLongArray(WRITE_STAMP_STRIPES);
+
+    public EmployeeCache( @Value("${employee.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${employee.cache.time-to-live:10m}") Duration timeToLive ) {
+        this.employeesById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<EmployeeView> getById( long id, Function<Long, Optional<EmployeeView>> loader ) {
+
+        EmployeeView cached = employeesById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        // load outside of Caffeine's compute so the JDBC call never runs under a map bin lock,
+        // concurrent misses of the same id share a single query
+        return loads.execute(id, key -> {
+            long stamp = writeStamp(key);
+            Optional<EmployeeView> loaded = loader.apply(key);
+            loaded.ifPresent(employee -> cacheLoaded(employee, stamp));
+            return loaded;
+        });
+    }
+
+    // cached entries plus whatever the loader finds for the rest, absent ids are left out of the map
+    public Map<Long, EmployeeView> getAllById( Collection<Long> ids, Function<Collection<Long>, List<EmployeeView>> loader ) {
+
+        Map<Long, EmployeeView> employees = new HashMap<>(employeesById.getAllPresent(ids));
+        List<Long> misses = ids.stream()
+                .filter(id -> !employees.containsKey(id))
+                .toList();
+        if (!misses.isEmpty()) {
+            Map<Long, Long> stamps = new HashMap<>();
+            misses.forEach(id -> stamps.put(id, writeStamp(id)));
+            for (EmployeeView employee : loader.apply(misses)) {
+                cacheLoaded(employee, stamps.get(employee.id()));
+                employees.put(employee.id(), employee);
+            }
+        }
+        return employees;
+    }
+
+    public Optional<EmployeeView> getIfPresent( long id ) {
+
+        return Optional.ofNullable(employeesById.getIfPresent(id));
+    }
+
+    // an email mapping only counts while its employee is cached under that email, so a mapping left
+    // behind by a size eviction of the employee can never answer for an email that moved on
+    public Optional<Long> getIdIfPresent( String email ) {
+
+        Long id = idsByEmail.getIfPresent(email);
+        if (id == null) {
+            return Optional.empty();
+        }
+        EmployeeView employee = employeesById.asMap().get(id);
+        if (employee == null || !employee.email().equals(email)) {
+            idsByEmail.asMap().remove(email, id);
+            return Optional.empty();
+        }
+        return Optional.of(id);
+    }
+
+    public void put( EmployeeView employee ) {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(employee.id());
+            afterCommit(() -> putNow(employee));
+        } else {
+            putNow(employee);
+        }
+    }
+
+    // bulk load at startup, the ids are only known once the query ran, so the stamps of all stripes
+    // are taken before it; a write racing the query drops the stale view like it does for getById
+    public int preload( Supplier<Collection<EmployeeView>> loader ) {
+
+        long[] stamps = new long[WRITE_STAMP_STRIPES];
+        for (int stripe = 0; stripe < WRITE_STAMP_STRIPES; stripe++) {
+            stamps[stripe] = writeStamps.get(stripe);
+        }
+        Collection<EmployeeView> employees = loader.get();
+        employees.forEach(employee -> cacheLoaded(employee, stamps[stripe(employee.id())]));
+        return employees.size();
+    }
+
+    // most frequently used ids first, what a restart should load again
+    public List<Long> hottestIds( int limit ) {
+
+        return employeesById.policy().eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+                .orElseGet(() -> employeesById.asMap().keySet().stream().limit(limit).toList());
+    }
+
+    public void evict( long id ) {
+
+        evictNow(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> evictNow(id));
+        }
+    }
+
+    private void putNow( EmployeeView employee ) {
+
+        evictNow(employee.id());
+        employeesById.put(employee.id(), employee);
+        idsByEmail.put(employee.email(), employee.id());
+    }
+
+    private void evictNow( long id ) {
+
+        writeStamps.incrementAndGet(stripe(id));
+        // the cached view knows the email to drop, without it there is no mapping getIdIfPresent would honour
+        EmployeeView evicted = employeesById.asMap().remove(id);
+        if (evicted != null) {
+            idsByEmail.asMap().remove(evicted.email(), id);
+        }
+    }
+
+    private static void afterCommit( Runnable action ) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // put first, then check: a write that bumps the stamp after the check evicts after this put as well
+    private void cacheLoaded( EmployeeView employee, long stamp ) {
+
+        employeesById.put(employee.id(), employee);
+        idsByEmail.put(employee.email(), employee.id());
+        if (writeStamp(employee.id()) != stamp) {
+            employeesById.asMap().remove(employee.id(), employee);
+            idsByEmail.asMap().remove(employee.email(), employee.id());
+        }
+    }
+
+    private long writeStamp( long id ) {
+        return writeStamps.get(stripe(id));
+    }
+
+    private static int stripe( long id ) {
+        return Long.hashCode(id) & (WRITE_STAMP_STRIPES - 1);
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry ) {
+        CaffeineCacheMetrics.monitor(registry, employeesById, "employees.byId");
+        CaffeineCacheMetrics.monitor(registry, idsByEmail, "employees.idByEmail");
+        FunctionCounter.builder("employees.byId.coalesced", loads, SingleFlight::coalesced)
+                .description("Cache misses answered by another request's in-flight query")
+                .register(registry);
+    }
+}
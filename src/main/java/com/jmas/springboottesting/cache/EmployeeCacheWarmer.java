@@ -0,0 +1,129 @@
+package com.jmas.springboottesting.cache;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Startup warm-up. Runs every repository query once, so Hibernate's plan cache and the database's
+ * statement cache are filled, and preloads {@link EmployeeCache} with the ids that were hottest
+ * before the last shutdown (or the first rows of the table when there is no such list).
+ * Tomcat already accepts connections while application runners run, so the warm-up holds the
+ * readiness state at REFUSING_TRAFFIC until it is done: traffic routed by the readiness probe
+ * arrives warm, a client connecting directly may still be served from a cold cache.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.warm-up.enabled", havingValue = "true")
+public class EmployeeCacheWarmer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeCacheWarmer.class);
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeCache employeeCache;
+
+    private final int rows;
+
+    private final Path hotIdsFile;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EmployeeCacheWarmer( EmployeeRepository employeeRepository, EmployeeCache employeeCache,
+                                @Value("${employee.warm-up.rows:10000}") int rows,
+                                @Value("${employee.warm-up.hot-ids-file:}") String hotIdsFile,
+                                ApplicationEventPublisher eventPublisher ) {
+        this.employeeRepository = employeeRepository;
+        this.employeeCache = employeeCache;
+        this.eventPublisher = eventPublisher;
+        this.rows = rows;
+        this.hotIdsFile = StringUtils.hasText(hotIdsFile) ? Path.of(hotIdsFile) : null;
+    }
+
+    @Override
+    public void run( ApplicationArguments args ) {
+
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+        warmQueries();
+
+        List<Long> hotIds = readHotIds();
+        int preloaded = employeeCache.preload(() -> hotIds.isEmpty()
+                ? employeeRepository.findViewsAfter(0L, PageRequest.ofSize(rows))
+                : findViews(hotIds));
+
+        log.info("Warm-up preloaded {} employees ({}) in {} ms", preloaded,
+                hotIds.isEmpty() ? "first rows" : "hot ids of the previous run", (System.nanoTime() - start) / 1_000_000);
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    // results are irrelevant, executing once is what prepares the plans
+    private void warmQueries() {
+        employeeRepository.findByEmail("");
+        employeeRepository.findExistingEmails(Set.of(""));
+        employeeRepository.findByJPQL("", "");
+        employeeRepository.findByJPQLNamedParams("", "");
+        employeeRepository.findByNativeSQL("", "");
+        employeeRepository.findByNativeSQLNamed("", "");
+        employeeRepository.findViewById(0L);
+        employeeRepository.findViewsByIds(List.of(0L));
+        employeeRepository.findVersionById(0L);
+        employeeRepository.findViewsAfter(Long.MAX_VALUE, PageRequest.ofSize(1));
+    }
+
+    private List<EmployeeView> findViews( List<Long> ids ) {
+        List<EmployeeView> employees = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            employees.addAll(employeeRepository.findViewsByIds(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()))));
+        }
+        return employees;
+    }
+
+    private List<Long> readHotIds() {
+        if (hotIdsFile == null || !Files.exists(hotIdsFile)) {
+            return List.of();
+        }
+        try (var lines = Files.lines(hotIdsFile)) {
+            return lines.filter(StringUtils::hasText)
+                    .map(line -> Long.valueOf(line.trim()))
+                    .limit(rows)
+                    .toList();
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Ignoring unreadable hot ids file {}: {}", hotIdsFile, e.getMessage());
+            return List.of();
+        }
+    }
+
+    @PreDestroy
+    public void saveHotIds() {
+        if (hotIdsFile == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(hotIdsFile.toAbsolutePath().getParent());
+            Files.write(hotIdsFile, employeeCache.hottestIds(rows).stream().map(String::valueOf).toList());
+        } catch (IOException e) {
+            log.warn("Could not save hot ids to {}: {}", hotIdsFile, e.getMessage());
+        }
+    }
+}
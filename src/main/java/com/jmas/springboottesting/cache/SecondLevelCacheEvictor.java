@@ -0,0 +1,44 @@
+package com.jmas.springboottesting.cache;
+
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate keeps its second-level and query caches in step with writes it executes itself. The
+ * single-statement employee update runs as a native query Hibernate cannot see through, so the
+ * entry is evicted here instead: once right away and once more after commit, so a reader that
+ * re-cached the old row while the transaction was open does not keep it.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+
+    private final Cache cache;
+
+    public SecondLevelCacheEvictor( EntityManagerFactory entityManagerFactory ) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    public void evictEmployee( long id ) {
+
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    // cached name lookups may hold the old names, they are cheap to run again
+    private void evict( long id ) {
+        cache.evictEntityData(Employee.class, id);
+        cache.evictQueryRegion(EmployeeRepository.NAME_QUERIES_REGION);
+    }
+}
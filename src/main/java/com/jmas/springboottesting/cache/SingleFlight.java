@@ -0,0 +1,59 @@
+package com.jmas.springboottesting.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Request coalescing: concurrent calls for the same key share one execution of the loader, the
+ * first caller runs it and the others wait for its result. Nothing is kept once the call is over,
+ * caching the result is up to the loader. Waiting is a CompletableFuture join, so virtual threads
+ * unmount instead of pinning their carrier.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute( K key, Function<K, V> loader ) {
+
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        try {
+            V value = loader.apply(key);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    // calls that got the result of another caller's execution
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    private static <V> V await( CompletableFuture<V> running ) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
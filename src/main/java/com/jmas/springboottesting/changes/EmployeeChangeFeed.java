@@ -0,0 +1,183 @@
+package com.jmas.springboottesting.changes;
+
+import com.jmas.springboottesting.dto.EmployeeChange;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events feed of committed employee writes. Every change gets the next sequence number
+ * and is kept in a fixed size ring buffer, so a client reconnecting with {@code Last-Event-ID}
+ * gets what it missed instead of re-reading the table. Clients too far behind get a
+ * {@code resync} event and should reload the list.
+ * <p>
+ * All sends happen on one dispatcher thread, in sequence order, so writers never wait for slow
+ * clients and a replay can not interleave with live changes.
+ */
+@Component
+public class EmployeeChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeFeed.class);
+
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final EmployeeChange[] buffer;
+
+    private final Duration emitterTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // starts from the clock so ids keep growing across restarts, an id of a previous run is always too old
+    private long lastSequence = System.currentTimeMillis() * 1000;
+
+    private final long firstSequence = lastSequence + 1;
+
+    private final Set<SseEmitter> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().name("employee-change-feed").daemon().unstarted(runnable));
+
+    public EmployeeChangeFeed( @Value("${employee.changes.buffer-size:10000}") int bufferSize,
+                               @Value("${employee.changes.emitter-timeout:30m}") Duration emitterTimeout ) {
+        this.buffer = new EmployeeChange[bufferSize];
+        this.emitterTimeout = emitterTimeout;
+        dispatcher.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent( EmployeeEvent event ) {
+
+        lock.lock();
+        try {
+            EmployeeChange change = EmployeeChange.of(++lastSequence, event);
+            buffer[index(change.sequence())] = change;
+            // queued under the lock, so the dispatcher sees changes in sequence order
+            dispatcher.execute(() -> subscribers.forEach(subscriber -> send(subscriber, change)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SseEmitter subscribe( Long lastEventId ) {
+
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+
+        lock.lock();
+        try {
+            Optional<List<EmployeeChange>> missed = lastEventId == null ? Optional.of(List.of()) : changesAfter(lastEventId);
+            dispatcher.execute(() -> {
+                if (missed.isEmpty()) {
+                    sendResync(emitter);
+                } else {
+                    missed.get().forEach(change -> send(emitter, change));
+                }
+                subscribers.add(emitter);
+            });
+        } finally {
+            lock.unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * Changes after {@code sequence} still in the buffer, or empty when some of them were already overwritten.
+     */
+    public Optional<List<EmployeeChange>> changesAfter( long sequence ) {
+
+        lock.lock();
+        try {
+            long oldestRetained = Math.max(firstSequence, lastSequence - buffer.length + 1);
+            if (sequence > lastSequence || sequence < oldestRetained - 1) {
+                return Optional.empty();
+            }
+            List<EmployeeChange> changes = new ArrayList<>((int) (lastSequence - sequence));
+            for (long next = sequence + 1; next <= lastSequence; next++) {
+                changes.add(buffer[index(next)]);
+            }
+            return Optional.of(changes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int index( long sequence ) {
+        return (int) Math.floorMod(sequence, (long) buffer.length);
+    }
+
+    private void send( SseEmitter emitter, EmployeeChange change ) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(change.sequence()))
+                    .name(change.type().name().toLowerCase())
+                    .data(change, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            drop(emitter, e);
+        }
+    }
+
+    private void sendResync( SseEmitter emitter ) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(lastSequence()))
+                    .name("resync")
+                    .data("changes since the given Last-Event-ID are no longer available"));
+        } catch (IOException | IllegalStateException e) {
+            drop(emitter, e);
+        }
+    }
+
+    // an SSE comment, keeps idle connections from being closed by proxies
+    private void heartbeat() {
+        subscribers.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                drop(emitter, e);
+            }
+        });
+    }
+
+    private void drop( SseEmitter emitter, Exception e ) {
+        log.debug("Dropping change feed subscriber: {}", e.getMessage());
+        subscribers.remove(emitter);
+        emitter.completeWithError(e);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+}
@@ -0,0 +1,31 @@
+package com.jmas.springboottesting.changes;
+
+import com.jmas.springboottesting.dto.EmployeeListVersion;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the employee list behind its ETag. Every committed write moves it, so reading it costs
+ * nothing where an aggregate over the table would scan every row. Like the search index it is kept
+ * in memory and only sees the writes of this instance.
+ */
+@Component
+public class EmployeeListVersionTracker {
+
+    // starts from the clock so versions keep growing across restarts, a tag of a previous run never matches
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    // read before the list itself: a write committed in between makes the tag older than the body,
+    // which only costs the client a miss on its next request
+    public EmployeeListVersion current() {
+        return new EmployeeListVersion(version.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent( EmployeeEvent event ) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,10 @@
+package com.jmas.springboottesting.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async work runs on Boot's applicationTaskExecutor, which follows spring.threads.virtual.enabled
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,32 @@
+package com.jmas.springboottesting.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+    // swaps reflective accessor and constructor calls for generated lambdas, picked up by Boot's ObjectMapper
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // binary encodings negotiated through Accept / Content-Type, they replace Spring MVC's default converters
+    // so they share the modules and settings of the JSON mapper instead of bare Jackson defaults
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter( ObjectMapper objectMapper ) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter( ObjectMapper objectMapper ) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+}
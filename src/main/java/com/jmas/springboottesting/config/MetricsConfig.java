@@ -0,0 +1,44 @@
+package com.jmas.springboottesting.config;
+
+import com.jmas.springboottesting.metrics.SqlStatementCounter;
+import com.jmas.springboottesting.metrics.SqlStatementCountingFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // enables @Timed on the service layer, repositories are timed by Spring Boot itself
+    @Bean
+    public TimedAspect timedAspect( MeterRegistry meterRegistry ) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer( SqlStatementCounter sqlStatementCounter ) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementCountingFilter> sqlStatementCountingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${employee.sql.max-statements-per-request:10}") int maxStatementsPerRequest,
+            @Value("${employee.sql.max-statement-repeats:2}") int maxStatementRepeats ) {
+
+        FilterRegistrationBean<SqlStatementCountingFilter> registration = new FilterRegistrationBean<>(
+                new SqlStatementCountingFilter(meterRegistry, maxStatementsPerRequest, maxStatementRepeats));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
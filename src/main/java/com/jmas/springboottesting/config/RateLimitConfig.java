@@ -0,0 +1,37 @@
+package com.jmas.springboottesting.config;
+
+import com.jmas.springboottesting.ratelimit.RateLimitingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Set;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "employee.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitingFilter> rateLimitingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${employee.rate-limit.requests-per-second:50}") double requestsPerSecond,
+            @Value("${employee.rate-limit.burst:100}") int burst,
+            @Value("${employee.rate-limit.client-header:X-Client-Id}") String clientHeader,
+            @Value("${employee.rate-limit.trusted-proxies:}") Set<String> trustedProxies,
+            @Value("${employee.rate-limit.max-clients:100000}") int maxClients ) {
+
+        FilterRegistrationBean<RateLimitingFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitingFilter(meterRegistry, requestsPerSecond, burst, clientHeader, trustedProxies,
+                        maxClients));
+        registration.addUrlPatterns("/api/employees", "/api/employees/*");
+        // rejected requests should not even be counted by the SQL statement filter
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
@@ -0,0 +1,125 @@
+package com.jmas.springboottesting.config;
+
+import com.jmas.springboottesting.cache.EmployeeCache;
+import com.jmas.springboottesting.cache.SecondLevelCacheEvictor;
+import com.jmas.springboottesting.replica.EmployeeReplicator;
+import com.jmas.springboottesting.replica.ReplicaContext;
+import com.jmas.springboottesting.replica.ReplicaRoutingDataSource;
+import com.jmas.springboottesting.replica.ReplicaStatus;
+import com.jmas.springboottesting.replica.ReplicaStickinessFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// read-only transactions go to a replica database, see ReplicaRoutingDataSource
+@Profile("replica")
+@Configuration
+public class ReplicaConfig {
+
+    private final String primaryUrl;
+
+    private final String replicaUrl;
+
+    private final int poolSize;
+
+    private final boolean autoCommit;
+
+    private final MeterRegistry meterRegistry;
+
+    public ReplicaConfig( @Value("${employee.replica.primary-url}") String primaryUrl,
+                          @Value("${employee.replica.replica-url}") String replicaUrl,
+                          @Value("${employee.replica.pool-size:10}") int poolSize,
+                          @Value("${spring.datasource.hikari.auto-commit:true}") boolean autoCommit,
+                          MeterRegistry meterRegistry ) {
+        this.primaryUrl = primaryUrl;
+        this.replicaUrl = replicaUrl;
+        this.poolSize = poolSize;
+        this.autoCommit = autoCommit;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // the pools are beans so the context closes them, but only the router is ever injected
+    @Bean(autowireCandidate = false)
+    public HikariDataSource primaryDataSource() {
+        return pool("employees-primary", primaryUrl, poolSize, autoCommit);
+    }
+
+    @Bean(autowireCandidate = false)
+    public HikariDataSource replicaDataSource() {
+        return pool("employees-replica", replicaUrl, poolSize, autoCommit);
+    }
+
+    // the applier writes outside of any transaction, one thread on its own auto-committing connection
+    @Bean(autowireCandidate = false)
+    public HikariDataSource replicatorDataSource() {
+        return pool("employees-replicator", replicaUrl, 1, true);
+    }
+
+    // also the "replicaStatus" health component
+    @Bean
+    public ReplicaStatus replicaStatus() {
+        return new ReplicaStatus();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource(), replicaDataSource(), replicaStatus(), meterRegistry));
+    }
+
+    // a resync reads the primary through its pool, outside of the routing
+    @Bean
+    public EmployeeReplicator employeeReplicator( EmployeeCache employeeCache, SecondLevelCacheEvictor secondLevelCacheEvictor,
+                                                  @Value("${employee.replica.apply-delay:0ms}") Duration applyDelay ) {
+        return new EmployeeReplicator(new JdbcTemplate(replicatorDataSource()), new JdbcTemplate(primaryDataSource()),
+                replicaStatus(), employeeCache, secondLevelCacheEvictor, applyDelay);
+    }
+
+    // ddl-auto only reaches the primary, the replica gets the same schema here
+    @Bean
+    public SmartInitializingSingleton replicaSchemaInitializer( EntityManagerFactory entityManagerFactory ) {
+        return () -> ReplicaContext.runOnReplica(
+                () -> entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(true));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReplicaStickinessFilter> replicaStickinessFilter(
+            @Value("${employee.replica.sticky-window:5s}") Duration stickyWindow,
+            @Value("${employee.replica.client-header:X-Client-Id}") String clientHeader,
+            @Value("${employee.replica.max-clients:100000}") int maxClients ) {
+
+        FilterRegistrationBean<ReplicaStickinessFilter> registration =
+                new FilterRegistrationBean<>(new ReplicaStickinessFilter(stickyWindow, clientHeader, maxClients));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 110);
+        return registration;
+    }
+
+    private HikariDataSource pool( String name, String url, int maximumPoolSize, boolean autoCommit ) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        // matches spring.datasource.hikari.auto-commit, Hibernate's provider_disables_autocommit trusts it
+        dataSource.setAutoCommit(autoCommit);
+        // hikaricp.* metrics per pool, tagged with the pool name
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+}
@@ -0,0 +1,25 @@
+package com.jmas.springboottesting.config;
+
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.repository.reactive.ReactiveEmployeeRepository;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+// Employee is both a JPA entity and an R2DBC table, so each store only scans its own repositories:
+// JPA would otherwise claim the reactive one and refuse to start
+@Configuration
+@EnableJpaRepositories(basePackageClasses = EmployeeRepository.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class RepositoryConfig {
+
+    @Configuration
+    @Profile("reactive")
+    @EnableR2dbcRepositories(basePackageClasses = ReactiveEmployeeRepository.class)
+    static class ReactiveRepositoryConfig {
+    }
+}
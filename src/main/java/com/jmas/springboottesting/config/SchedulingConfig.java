@@ -0,0 +1,10 @@
+package com.jmas.springboottesting.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled jobs run on Boot's taskScheduler, one thread unless spring.task.scheduling.pool.size says otherwise
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,83 @@
+package com.jmas.springboottesting.config;
+
+import com.jmas.springboottesting.shard.EmployeeEmailDirectory;
+import com.jmas.springboottesting.shard.EmployeeShardRouter;
+import com.jmas.springboottesting.shard.ShardContext;
+import com.jmas.springboottesting.shard.ShardRoutingDataSource;
+import com.jmas.springboottesting.shard.ShardTenantIdentifierResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// employees spread over employee.shards.count databases, see EmployeeShardRouter for the placement rules
+@Profile("sharded")
+@Configuration
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource dataSource( EmployeeShardRouter shardRouter, MeterRegistry meterRegistry,
+                                              @Value("${employee.shards.url}") String urlTemplate,
+                                              @Value("${employee.shards.username:sa}") String username,
+                                              @Value("${employee.shards.password:}") String password,
+                                              @Value("${employee.shards.pool-size:10}") int poolSize,
+                                              @Value("${spring.datasource.hikari.auto-commit:true}") boolean autoCommit ) {
+
+        List<HikariDataSource> shards = shardRouter.shards()
+                .mapToObj(shard -> {
+                    HikariDataSource dataSource = new HikariDataSource();
+                    dataSource.setPoolName("employees-shard-" + shard);
+                    dataSource.setJdbcUrl(urlTemplate.replace("{shard}", Integer.toString(shard)));
+                    dataSource.setUsername(username);
+                    dataSource.setPassword(password);
+                    dataSource.setMaximumPoolSize(poolSize);
+                    // matches spring.datasource.hikari.auto-commit, Hibernate's provider_disables_autocommit trusts it
+                    dataSource.setAutoCommit(autoCommit);
+                    // Boot only instruments the DataSource bean itself, the pools behind the router register here
+                    dataSource.setMetricRegistry(meterRegistry);
+                    return dataSource;
+                })
+                .toList();
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardTenantIdentifierCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                new ShardTenantIdentifierResolver());
+    }
+
+    // Hibernate's schema tooling only sees the default shard, so every shard without the schema gets it
+    // here; a fresh sequence is moved to the start of the shard's id range, one that already hands out
+    // ids of it is left alone, and the email directory is created next to the employees
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer( EntityManagerFactory entityManagerFactory,
+                                                              EmployeeShardRouter shardRouter,
+                                                              JdbcTemplate jdbcTemplate,
+                                                              EmployeeEmailDirectory emailDirectory ) {
+        return () -> {
+            shardRouter.shards().forEach(shard -> ShardContext.runOn(shard, () -> {
+                if (jdbcTemplate.queryForObject("select count(*) from information_schema.tables " +
+                        "where table_name = 'EMPLOYEES'", Long.class) == 0) {
+                    entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(true);
+                }
+                long next = jdbcTemplate.queryForObject("select base_value from information_schema.sequences " +
+                        "where sequence_name = 'EMPLOYEES_SEQ'", Long.class);
+                if (next < shardRouter.firstId(shard)) {
+                    jdbcTemplate.execute("alter sequence employees_seq restart with " + shardRouter.firstId(shard));
+                }
+            }));
+            emailDirectory.initialize();
+        };
+    }
+}
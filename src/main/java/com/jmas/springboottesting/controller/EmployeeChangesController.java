@@ -0,0 +1,29 @@
+package com.jmas.springboottesting.controller;
+
+import com.jmas.springboottesting.changes.EmployeeChangeFeed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/employees/changes")
+public class EmployeeChangesController {
+
+    private final EmployeeChangeFeed changeFeed;
+
+    public EmployeeChangesController(EmployeeChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    // EventSource clients resend the id of the last event they saw when they reconnect
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+
+        return changeFeed.subscribe(lastEventId);
+    }
+}
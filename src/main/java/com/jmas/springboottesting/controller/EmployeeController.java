@@ -1,21 +1,70 @@
 package com.jmas.springboottesting.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeLookupResult;
+import com.jmas.springboottesting.dto.EmployeeView;
 import com.jmas.springboottesting.model.Employee;
 import com.jmas.springboottesting.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final int MAX_LOOKUP_IDS = 1000;
+
     private final EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    // the media type served by MappingJackson2SmileHttpMessageConverter, Spring has no constant for it
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private final ObjectWriter ndjsonWriter;
+
+    private final ObjectWriter jsonArrayWriter;
+
+    private final ObjectWriter smileArrayWriter;
+
+    private final ObjectWriter cborArrayWriter;
+
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        // writers are immutable, build them once instead of per streamed request
+        ObjectWriter writer = objectMapper.writerFor(EmployeeView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.ndjsonWriter = writer.withRootValueSeparator("\n");
+        this.jsonArrayWriter = writer;
+        this.smileArrayWriter = objectMapper.copyWith(new SmileFactory()).writerFor(EmployeeView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cborArrayWriter = objectMapper.copyWith(new CBORFactory()).writerFor(EmployeeView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
@@ -25,32 +74,196 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("batch")
+    public List<EmployeeBatchResult> createEmployees(@RequestBody List<Employee> employees){
+
+        return employeeService.saveEmployees(employees);
+    }
+
+    // always a bounded page, the first one without parameters; the whole table is only served by /stream.
+    // A full page links to the next one, so a client that sent no parameters still learns there is more
     @GetMapping
-    public List<Employee> getAllEmployees(){
+    public ResponseEntity<List<EmployeeView>> getEmployeesPage(
+            @RequestParam(name = "after", required = false) Long afterId,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // the list version covers every page, any change anywhere just makes it a miss
+        String etag = employeeService.getEmployeesVersion().toETag();
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<EmployeeView> page = employeeService.getEmployeesAfter(afterId == null ? 0 : afterId, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (page.size() == pageSize) {
+            response.header(HttpHeaders.LINK, nextPageLink(page.get(page.size() - 1).id(), pageSize));
+        }
+        return response.body(page);
+    }
+
+    private static String nextPageLink( long lastId, int pageSize ) {
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", lastId)
+                .replaceQueryParam("limit", pageSize)
+                .toUriString();
+        return "<" + next + ">; rel=\"next\"";
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<EmployeeLookupResult>> getEmployeesByIds(@RequestParam("ids") List<Long> ids){
+
+        return lookup(ids);
+    }
+
+    // same as GET ?ids=, for id lists that do not fit in a URL
+    @PostMapping("lookup")
+    public ResponseEntity<List<EmployeeLookupResult>> lookupEmployees(@RequestBody List<Long> ids){
+
+        return lookup(ids);
+    }
+
+    @GetMapping("search")
+    public List<EmployeeView> searchEmployees(@RequestParam("q") String query,
+                                              @RequestParam(name = "limit", defaultValue = "10") int limit){
+
+        return employeeService.searchEmployees(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @GetMapping("stream")
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(@RequestParam(name = "format", defaultValue = "ndjson") String format){
 
-        return employeeService.getAllEmployees();
+        boolean ndjson = !"json".equalsIgnoreCase(format);
+        return ndjson
+                ? stream(MediaType.APPLICATION_NDJSON, ndjsonWriter::writeValues)
+                : stream(MediaType.APPLICATION_JSON, jsonArrayWriter::writeValuesAsArray);
+    }
+
+    // binary encodings of the same stream, one array whose elements are written as they are read
+    @GetMapping(value = "stream", produces = APPLICATION_SMILE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsSmile(){
+
+        return stream(MediaType.parseMediaType(APPLICATION_SMILE_VALUE), smileArrayWriter::writeValuesAsArray);
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsCbor(){
+
+        return stream(MediaType.APPLICATION_CBOR, cborArrayWriter::writeValuesAsArray);
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
+    public ResponseEntity<EmployeeView> getEmployeeById(@PathVariable("id") long employeeId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
 
-        return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+        // revalidation is answered from the version alone, the employee is only read when it changed
+        if (ifNoneMatch != null) {
+            Optional<Long> version = employeeService.getEmployeeVersion(employeeId);
+            if (version.isPresent() && etagMatches(ifNoneMatch, etag(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(version.get())).build();
+            }
+        }
+        return employeeService.getEmployeeViewById(employeeId)
+                .map(savedEmployee -> ResponseEntity.ok().eTag(etag(savedEmployee.version())).body(savedEmployee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee){
-
-        return employeeService.getEmployeeById(employeeId)
-                .map( savedEmployee -> {
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-                })
+    public ResponseEntity<EmployeeView> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+
+        Optional<EmployeeView> updatedEmployee;
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            updatedEmployee = employeeService.updateEmployee(employeeId, employee);
+        } else {
+            OptionalLong expectedVersion = version(ifMatch);
+            if (expectedVersion.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            updatedEmployee = employeeService.updateEmployee(employeeId, employee, expectedVersion.getAsLong());
+        }
+        return updatedEmployee
+                .map(savedEmployee -> ResponseEntity.ok().eTag(etag(savedEmployee.version())).body(savedEmployee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @DeleteMapping("{id}")
+    public ResponseEntity<Void> deleteEmployee(@PathVariable("id") long employeeId){
+
+        return employeeService.deleteEmployee(employeeId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // the employee exists but is no longer at the version named in If-Match
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConcurrentUpdate(){
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream( MediaType contentType, SequenceWriterFactory writerFactory ) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter sequenceWriter = writerFactory.open(outputStream)) {
+                employeeService.streamAllEmployees(employee -> {
+                    try {
+                        sequenceWriter.write(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(body);
+    }
+
+    private ResponseEntity<List<EmployeeLookupResult>> lookup( List<Long> ids ) {
+        if (ids.size() > MAX_LOOKUP_IDS || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(ids));
+    }
+
+    private static String etag( long version ) {
+        return "\"" + version + "\"";
+    }
+
+    // If-Match needs a strong comparison, so only a single strong tag can be turned into a version
+    private static OptionalLong version( String ifMatch ) {
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(tag.substring(1, tag.length() - 1)));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    // If-None-Match / If-Match hold '*' or a comma separated list of (possibly weak) entity tags
+    private static boolean etagMatches( String header, String etag ) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface SequenceWriterFactory {
+
+        SequenceWriter open( OutputStream outputStream ) throws IOException;
+    }
 }
@@ -0,0 +1,27 @@
+package com.jmas.springboottesting.controller;
+
+import com.jmas.springboottesting.dto.EmployeeStats;
+import com.jmas.springboottesting.stats.EmployeeStatistics;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/employees/stats")
+public class EmployeeStatsController {
+
+    private final EmployeeStatistics statistics;
+
+    public EmployeeStatsController(EmployeeStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    // served from in-memory counters, the table is not read
+    @GetMapping
+    public EmployeeStats getStats(){
+
+        return statistics.snapshot();
+    }
+}
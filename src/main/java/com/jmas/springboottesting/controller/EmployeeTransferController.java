@@ -0,0 +1,52 @@
+package com.jmas.springboottesting.controller;
+
+import com.jmas.springboottesting.dto.EmployeeImportResult;
+import com.jmas.springboottesting.service.EmployeeTransferService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeTransferController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final EmployeeTransferService transferService;
+
+    public EmployeeTransferController(EmployeeTransferService transferService) {
+        this.transferService = transferService;
+    }
+
+    // the raw body stream is handed over, nothing is buffered before parsing
+    @PostMapping(value = "import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<EmployeeImportResult> importEmployees(InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(name = "offset", defaultValue = "0") long offset){
+
+        EmployeeTransferService.Format format = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? EmployeeTransferService.Format.CSV : EmployeeTransferService.Format.NDJSON;
+        EmployeeImportResult result = transferService.importEmployees(body, format, Math.max(0, offset));
+        return ResponseEntity.status(result.complete() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY).body(result);
+    }
+
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(name = "format", defaultValue = "ndjson") String format){
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        EmployeeTransferService.Format exportFormat = csv ? EmployeeTransferService.Format.CSV : EmployeeTransferService.Format.NDJSON;
+        StreamingResponseBody body = outputStream -> transferService.exportEmployees(outputStream, exportFormat);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=employees." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+}
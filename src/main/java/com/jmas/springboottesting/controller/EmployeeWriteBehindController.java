@@ -0,0 +1,46 @@
+package com.jmas.springboottesting.controller;
+
+import com.jmas.springboottesting.dto.EmployeeWriteStatus;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.writebehind.EmployeeWriteBehindQueue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employee.write-behind.enabled", havingValue = "true")
+@RestController
+@RequestMapping("/api/employees/async")
+public class EmployeeWriteBehindController {
+
+    private final EmployeeWriteBehindQueue writeBehindQueue;
+
+    public EmployeeWriteBehindController(EmployeeWriteBehindQueue writeBehindQueue) {
+        this.writeBehindQueue = writeBehindQueue;
+    }
+
+    @PostMapping
+    public ResponseEntity<EmployeeWriteStatus> createEmployee(@RequestBody Employee employee){
+
+        return writeBehindQueue.submit(employee)
+                .map(status -> ResponseEntity.accepted()
+                        .location(URI.create("/api/employees/async/" + status.trackingId()))
+                        .body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @GetMapping("{trackingId}")
+    public ResponseEntity<EmployeeWriteStatus> getStatus(@PathVariable("trackingId") String trackingId){
+
+        return writeBehindQueue.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
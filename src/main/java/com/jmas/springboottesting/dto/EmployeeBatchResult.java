@@ -0,0 +1,18 @@
+package com.jmas.springboottesting.dto;
+
+public record EmployeeBatchResult(int index, String email, Status status, Long id) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    public static EmployeeBatchResult created( int index, String email, long id ) {
+        return new EmployeeBatchResult(index, email, Status.CREATED, id);
+    }
+
+    public static EmployeeBatchResult rejected( int index, String email, Status status ) {
+        return new EmployeeBatchResult(index, email, status, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.jmas.springboottesting.dto;
+
+import com.jmas.springboottesting.event.EmployeeEvent;
+
+/**
+ * One entry of the employee change feed. {@code employee} is null for deletions.
+ */
+public record EmployeeChange(long sequence, EmployeeEvent.Type type, long id, EmployeeView employee) {
+
+    public static EmployeeChange of( long sequence, EmployeeEvent event ) {
+        return new EmployeeChange(sequence, event.type(), event.id(), event.employee());
+    }
+}
@@ -0,0 +1,4 @@
+package com.jmas.springboottesting.dto;
+
+public record EmployeeGroupCount(String group, long count) {
+}
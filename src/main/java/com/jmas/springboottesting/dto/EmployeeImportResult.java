@@ -0,0 +1,9 @@
+package com.jmas.springboottesting.dto;
+
+/**
+ * Outcome of a bulk import. Rows before {@code nextOffset} are committed; after a failure the same
+ * file can be sent again with {@code offset=nextOffset} to continue where it stopped.
+ */
+public record EmployeeImportResult(long offset, long nextOffset, long created, long duplicates, long invalid,
+                                   boolean complete, String error) {
+}
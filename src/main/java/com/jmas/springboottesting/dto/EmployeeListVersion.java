@@ -0,0 +1,11 @@
+package com.jmas.springboottesting.dto;
+
+/**
+ * Version of the whole employees list, it changes whenever any page of the list would.
+ */
+public record EmployeeListVersion(long version) {
+
+    public String toETag() {
+        return "\"" + version + "\"";
+    }
+}
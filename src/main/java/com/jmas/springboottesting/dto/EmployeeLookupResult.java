@@ -0,0 +1,16 @@
+package com.jmas.springboottesting.dto;
+
+/**
+ * One entry of a multi-get, in the position of the requested id; {@code employee} is null when
+ * the id does not exist.
+ */
+public record EmployeeLookupResult(long id, boolean found, EmployeeView employee) {
+
+    public static EmployeeLookupResult found( EmployeeView employee ) {
+        return new EmployeeLookupResult(employee.id(), true, employee);
+    }
+
+    public static EmployeeLookupResult missing( long id ) {
+        return new EmployeeLookupResult(id, false, null);
+    }
+}
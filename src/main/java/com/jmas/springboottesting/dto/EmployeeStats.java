@@ -0,0 +1,9 @@
+package com.jmas.springboottesting.dto;
+
+import java.util.SortedMap;
+
+/**
+ * Employee counts for dashboards, overall and grouped by email domain and by last name initial.
+ */
+public record EmployeeStats(long total, SortedMap<String, Long> byEmailDomain, SortedMap<String, Long> byLastNameInitial) {
+}
@@ -0,0 +1,14 @@
+package com.jmas.springboottesting.dto;
+
+import com.jmas.springboottesting.model.Employee;
+
+/**
+ * Read model of an employee. Queries select straight into it, so reads never create managed entities.
+ */
+public record EmployeeView(long id, String firstName, String lastName, String email, long version) {
+
+    public static EmployeeView of( Employee employee ) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                employee.getVersion());
+    }
+}
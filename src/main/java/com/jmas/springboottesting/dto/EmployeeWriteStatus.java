@@ -0,0 +1,27 @@
+package com.jmas.springboottesting.dto;
+
+/**
+ * Outcome of a create accepted by the write-behind queue, {@code id} is set once it is CREATED.
+ */
+public record EmployeeWriteStatus(String trackingId, State state, String email, Long id) {
+
+    public enum State {
+        PENDING,
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    public static EmployeeWriteStatus pending( String trackingId, String email ) {
+        return new EmployeeWriteStatus(trackingId, State.PENDING, email, null);
+    }
+
+    public static EmployeeWriteStatus of( String trackingId, EmployeeBatchResult result ) {
+        return new EmployeeWriteStatus(trackingId, State.valueOf(result.status().name()), result.email(), result.id());
+    }
+
+    public EmployeeWriteStatus with( State state ) {
+        return new EmployeeWriteStatus(trackingId, state, email, id);
+    }
+}
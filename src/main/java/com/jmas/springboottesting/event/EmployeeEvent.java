@@ -0,0 +1,29 @@
+package com.jmas.springboottesting.event;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+
+/**
+ * Published by the service layer after every employee write. Listeners that keep derived state
+ * (search index, change feeds, statistics) react to it once the write transaction has committed.
+ * {@code employee} is null for deletions.
+ */
+public record EmployeeEvent(Type type, long id, EmployeeView employee) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static EmployeeEvent created( EmployeeView employee ) {
+        return new EmployeeEvent(Type.CREATED, employee.id(), employee);
+    }
+
+    public static EmployeeEvent updated( EmployeeView employee ) {
+        return new EmployeeEvent(Type.UPDATED, employee.id(), employee);
+    }
+
+    public static EmployeeEvent deleted( long id ) {
+        return new EmployeeEvent(Type.DELETED, id, null);
+    }
+}
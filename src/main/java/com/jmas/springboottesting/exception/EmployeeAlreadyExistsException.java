@@ -0,0 +1,16 @@
+package com.jmas.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EmployeeAlreadyExistsException extends ResourceNotFoundException {
+
+    public EmployeeAlreadyExistsException( String email ) {
+        super("Employee already exists with given email:" + email);
+    }
+
+    public EmployeeAlreadyExistsException( String email, Throwable cause ) {
+        super("Employee already exists with given email:" + email, cause);
+    }
+}
@@ -0,0 +1,65 @@
+package com.jmas.springboottesting.health;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports every Hikari pool from the metrics Boot already publishes for it. The pool is DEGRADED
+ * while the recent maximum connection acquire time is above {@code employee.datasource.max-acquire-time},
+ * which is the earliest sign that requests are queueing for connections.
+ */
+@Component("connectionPool")
+public class ConnectionPoolHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Requests are waiting for database connections");
+
+    private static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration maxAcquireTime;
+
+    public ConnectionPoolHealthIndicator( MeterRegistry meterRegistry,
+                                          @Value("${employee.datasource.max-acquire-time:100ms}") Duration maxAcquireTime ) {
+        this.meterRegistry = meterRegistry;
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    @Override
+    public Health health() {
+
+        Health.Builder builder = Health.up();
+        for (Timer acquire : meterRegistry.find(ACQUIRE_TIMER).timers()) {
+            String pool = acquire.getId().getTag("pool");
+            double maxAcquireMillis = acquire.max(TimeUnit.MILLISECONDS);
+
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("active", gauge("hikaricp.connections.active", pool));
+            details.put("idle", gauge("hikaricp.connections.idle", pool));
+            details.put("pending", gauge("hikaricp.connections.pending", pool));
+            details.put("maxAcquireMillis", maxAcquireMillis);
+            builder.withDetail(pool, details);
+
+            if (maxAcquireMillis > maxAcquireTime.toMillis()) {
+                builder.status(DEGRADED);
+            }
+        }
+        return builder.build();
+    }
+
+    private long gauge( String name, String pool ) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge == null ? 0 : (long) gauge.value();
+    }
+}
@@ -0,0 +1,67 @@
+package com.jmas.springboottesting.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hibernate statement inspector that counts the SQL statements prepared by the current thread
+ * between {@link #begin()} and {@link #end()}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Statements> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect( String sql ) {
+        Statements statements = CURRENT.get();
+        if (statements != null) {
+            statements.record(sql);
+        }
+        return sql;
+    }
+
+    public static Statements begin() {
+        Statements statements = new Statements();
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static final class Statements {
+
+        private final Map<String, Integer> countsBySql = new HashMap<>();
+
+        private int total;
+
+        private void record( String sql ) {
+            total++;
+            countsBySql.merge(sql, 1, Integer::sum);
+        }
+
+        public int total() {
+            return total;
+        }
+
+        // statements prepared more than maxRepeats times, the usual N+1 signature; inserts are prepared
+        // once per JDBC batch and ids are fetched from the sequence in blocks, those repeat by design
+        public List<String> repeated( int maxRepeats ) {
+            return countsBySql.entrySet().stream()
+                    .filter(entry -> entry.getValue() > maxRepeats && !repeatsByDesign(entry.getKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        private static boolean repeatsByDesign( String sql ) {
+            String statement = sql.strip().toLowerCase(Locale.ROOT);
+            return statement.startsWith("insert") || statement.contains("next value for")
+                    || statement.contains("nextval(");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.jmas.springboottesting.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Records how many SQL statements each request prepared and warns about requests that look like
+ * an N+1: too many statements, or the same one prepared more often than the configured repeats.
+ */
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCountingFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxStatementsPerRequest;
+
+    private final int maxStatementRepeats;
+
+    public SqlStatementCountingFilter( MeterRegistry meterRegistry, int maxStatementsPerRequest, int maxStatementRepeats ) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+        this.maxStatementRepeats = maxStatementRepeats;
+    }
+
+    @Override
+    protected void doFilterInternal( HttpServletRequest request, HttpServletResponse response, FilterChain filterChain )
+            throws ServletException, IOException {
+
+        SqlStatementCounter.Statements statements = SqlStatementCounter.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.end();
+            record(request, statements);
+        }
+    }
+
+    private void record( HttpServletRequest request, SqlStatementCounter.Statements statements ) {
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements prepared while serving a request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(statements.total());
+
+        List<String> repeated = statements.repeated(maxStatementRepeats);
+        if (statements.total() > maxStatementsPerRequest || !repeated.isEmpty()) {
+            meterRegistry.counter("http.server.requests.sql.suspicious", "method", request.getMethod(), "uri", uri)
+                    .increment();
+            log.warn("{} {} prepared {} SQL statements, repeated: {}",
+                    request.getMethod(), uri, statements.total(), repeated);
+        }
+    }
+}
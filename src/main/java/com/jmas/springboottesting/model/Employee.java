@@ -1,7 +1,12 @@
 package com.jmas.springboottesting.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 @Setter
 @Getter
@@ -9,11 +14,22 @@ import lombok.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name="employees")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
+@SQLRestriction("deleted = false") // tombstones are invisible to every JPA read, native SQL has to filter itself
+@org.springframework.data.relational.core.mapping.Table("employees") // mapping for the R2DBC repository
+@Table(name="employees", indexes = {
+        @Index(name = "ux_employees_email", columnList = "email", unique = true),
+        @Index(name = "ix_employees_name", columnList = "first_name, last_name"),
+        @Index(name = "ix_employees_deleted", columnList = "deleted")
+})
 public class Employee {
 
+    // pooled sequence instead of IDENTITY so Hibernate can batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @org.springframework.data.annotation.Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private long id;
 
     @Column(name="first_name", nullable = false)
@@ -24,4 +40,14 @@ public class Employee {
 
     @Column(nullable = false)
     private String email;
+
+    // optimistic locking, also the source of the ETag handed out for the employee
+    @Version
+    private long version;
+
+    // soft delete, the row stays until the purger removes it; its email is released when it is flagged
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
 }
@@ -0,0 +1,80 @@
+package com.jmas.springboottesting.purge;
+
+import com.jmas.springboottesting.shard.EmployeeShardRouter;
+import com.jmas.springboottesting.shard.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hard-deletes soft deleted employees in the background. Every batch is its own short transaction
+ * and a run stops after a fixed number of batches, so row locks are held briefly and a large backlog
+ * is worked off over several runs instead of in one long delete. Plain JDBC on purpose: tombstones
+ * were already evicted from the caches when they were deleted, and a native delete through
+ * Hibernate would invalidate the whole second-level cache.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeePurger.class);
+
+    private static final String PURGE_SQL = "delete from employees where id in " +
+            "(select id from employees where deleted = true order by id limit ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EmployeeShardRouter shardRouter;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final Counter purged;
+
+    public EmployeePurger( JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           EmployeeShardRouter shardRouter, MeterRegistry meterRegistry,
+                           @Value("${employee.purge.batch-size:500}") int batchSize,
+                           @Value("${employee.purge.max-batches-per-run:20}") int maxBatchesPerRun ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.purged = Counter.builder("employees.purged")
+                .description("Soft deleted employees removed by the purger")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.purge.interval:PT1M}", initialDelayString = "${employee.purge.interval:PT1M}")
+    public void purge() {
+        shardRouter.shards().forEach(shard -> ShardContext.runOn(shard, this::purgeShard));
+    }
+
+    private void purgeShard() {
+
+        long total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(PURGE_SQL, batchSize));
+            int rows = deleted == null ? 0 : deleted;
+            purged.increment(rows);
+            total += rows;
+            if (rows < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} soft deleted employees from shard {}", total, ShardContext.current());
+        }
+    }
+}
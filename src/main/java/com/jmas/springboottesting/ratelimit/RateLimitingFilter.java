@@ -0,0 +1,92 @@
+package com.jmas.springboottesting.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token bucket in front of the employee API, clients over their rate get a 429 with
+ * Retry-After before any database work happens. Clients are told apart by their remote address; the
+ * configured header is only believed when the request comes from one of the trusted proxies, anyone
+ * else could send a new value with every request. Idle buckets are dropped after a while.
+ */
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+    private final double requestsPerSecond;
+
+    private final int burst;
+
+    private final String clientHeader;
+
+    private final Set<String> trustedProxies;
+
+    private final LongSupplier nanoClock;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Counter rejected;
+
+    public RateLimitingFilter( MeterRegistry meterRegistry, double requestsPerSecond, int burst,
+                               String clientHeader, Set<String> trustedProxies, int maxClients ) {
+        this(meterRegistry, requestsPerSecond, burst, clientHeader, trustedProxies, maxClients, System::nanoTime);
+    }
+
+    RateLimitingFilter( MeterRegistry meterRegistry, double requestsPerSecond, int burst,
+                        String clientHeader, Set<String> trustedProxies, int maxClients, LongSupplier nanoClock ) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.nanoClock = nanoClock;
+        // an idle bucket is full again after burst / rate, past that it is the same as a new one
+        Duration idle = Duration.ofNanos((long) (TimeUnit.SECONDS.toNanos(1) * (burst / requestsPerSecond)));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idle.plusSeconds(1))
+                .build();
+        this.rejected = Counter.builder("http.server.requests.rate.limited")
+                .description("Requests rejected because the client exceeded its rate")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal( HttpServletRequest request, HttpServletResponse response, FilterChain filterChain )
+            throws ServletException, IOException {
+
+        long now = nanoClock.getAsLong();
+        long waitNanos = buckets.get(client(request), key -> new TokenBucket(requestsPerSecond, burst, now))
+                .tryConsume(now);
+        if (waitNanos > 0) {
+            rejected.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1))));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String client( HttpServletRequest request ) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String client = request.getHeader(clientHeader);
+        return StringUtils.hasText(client) ? client : remoteAddress;
+    }
+}
@@ -0,0 +1,47 @@
+package com.jmas.springboottesting.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count plus a refill timestamp the whole state is one
+ * long, the instant at which the bucket would be full again (GCRA), so taking a token is a single
+ * compare-and-set.
+ */
+public class TokenBucket {
+
+    // nanos it takes to refill one token
+    private final long refillNanos;
+
+    // how far the full instant may run ahead of now, i.e. burst capacity
+    private final long capacityNanos;
+
+    private final AtomicLong fullAt;
+
+    public TokenBucket( double tokensPerSecond, int capacity, long nowNanos ) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Token bucket needs a positive rate and capacity");
+        }
+        this.refillNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.capacityNanos = refillNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token and returns 0, or returns how many nanos to wait before a token is available.
+     */
+    public long tryConsume( long nowNanos ) {
+
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + refillNanos;
+            long ahead = next - nowNanos;
+            if (ahead > capacityNanos) {
+                return ahead - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
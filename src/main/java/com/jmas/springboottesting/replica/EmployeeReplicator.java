@@ -0,0 +1,209 @@
+package com.jmas.springboottesting.replica;
+
+import com.jmas.springboottesting.cache.EmployeeCache;
+import com.jmas.springboottesting.cache.SecondLevelCacheEvictor;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the local replica database in step with the primary by replaying committed employee events
+ * on it, in commit order from a single thread. It stands in for the database's own replication,
+ * {@code applyDelay} simulates its lag. The lag of every applied change is recorded, so the
+ * employees.replica.lag metric looks the same as it would against a real replica.
+ * <p>
+ * A change that still fails after a few attempts has left the replica behind for good: it is marked
+ * out of sync, which sends all reads to the primary, and the employees table is copied over from the
+ * primary. The statements tolerate replaying older changes, so events queued meanwhile are harmless.
+ */
+public class EmployeeReplicator implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeReplicator.class);
+
+    // older versions never overwrite newer ones, events of different requests may arrive out of order;
+    // a tombstone is never overwritten, deletes are final on the primary so every upsert it meets is older
+    private static final String UPSERT_SQL = "merge into employees t " +
+            "using (values (cast(? as bigint), ?, ?, ?, cast(? as bigint))) s(id, first_name, last_name, email, version) " +
+            "on t.id = s.id " +
+            "when matched and t.version < s.version and t.deleted = false then update set " +
+            "first_name = s.first_name, last_name = s.last_name, email = s.email, version = s.version " +
+            "when not matched then insert (id, first_name, last_name, email, version, deleted) " +
+            "values (s.id, s.first_name, s.last_name, s.email, s.version, false)";
+
+    // a delete that overtakes the create leaves a placeholder tombstone, its email cannot collide with a real one
+    private static final String TOMBSTONE_SQL = "merge into employees t " +
+            "using (values (cast(? as bigint))) s(id) " +
+            "on t.id = s.id " +
+            "when matched then update set deleted = true, email = concat('tombstone:', t.id), version = t.version + 1 " +
+            "when not matched then insert (id, first_name, last_name, email, version, deleted) " +
+            "values (s.id, '', '', concat('tombstone:', s.id), 0, true)";
+
+    private static final String PURGE_TOMBSTONE_SQL = "delete from employees where id = ? and deleted = true";
+
+    private static final String COPY_SQL = "select id, first_name, last_name, email, version, deleted from employees";
+
+    private static final String INSERT_SQL = "insert into employees (id, first_name, last_name, email, version, deleted) " +
+            "values (?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final Duration RETRY_DELAY = Duration.ofMillis(200);
+
+    private static final Duration RESYNC_RETRY_DELAY = Duration.ofSeconds(10);
+
+    // long past the point where a late event of the employee could still arrive
+    private static final Duration TOMBSTONE_RETENTION = Duration.ofMinutes(1);
+
+    private final JdbcTemplate replica;
+
+    private final JdbcTemplate primary;
+
+    private final ReplicaStatus replicaStatus;
+
+    private final EmployeeCache employeeCache;
+
+    private final SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    private final long applyDelayNanos;
+
+    // only touched by the applier thread
+    private final Queue<Tombstone> tombstones = new ArrayDeque<>();
+
+    private boolean resyncScheduled;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final ScheduledExecutorService applier = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().name("employee-replicator").daemon().unstarted(runnable));
+
+    private Timer lag;
+
+    public EmployeeReplicator( JdbcTemplate replica, JdbcTemplate primary, ReplicaStatus replicaStatus,
+                               EmployeeCache employeeCache, SecondLevelCacheEvictor secondLevelCacheEvictor,
+                               Duration applyDelay ) {
+        this.replica = replica;
+        this.primary = primary;
+        this.replicaStatus = replicaStatus;
+        this.employeeCache = employeeCache;
+        this.secondLevelCacheEvictor = secondLevelCacheEvictor;
+        this.applyDelayNanos = applyDelay.toNanos();
+        long retentionNanos = TOMBSTONE_RETENTION.toNanos();
+        applier.scheduleWithFixedDelay(this::purgeTombstones, retentionNanos, retentionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent( EmployeeEvent event ) {
+
+        long committedAt = System.nanoTime();
+        pending.incrementAndGet();
+        applier.schedule(() -> apply(event, committedAt, 1), applyDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void apply( EmployeeEvent event, long committedAt, int attempt ) {
+        try {
+            if (event.type() == EmployeeEvent.Type.DELETED) {
+                replica.update(TOMBSTONE_SQL, event.id());
+                tombstones.add(new Tombstone(event.id(), System.nanoTime()));
+            } else {
+                EmployeeView employee = event.employee();
+                replica.update(UPSERT_SQL, employee.id(), employee.firstName(), employee.lastName(),
+                        employee.email(), employee.version());
+            }
+            if (lag != null) {
+                lag.record(System.nanoTime() - committedAt, TimeUnit.NANOSECONDS);
+            }
+        } catch (RuntimeException e) {
+            if (attempt < MAX_ATTEMPTS && !applier.isShutdown()) {
+                log.warn("Replicating {} of employee {} failed, retrying: {}", event.type(), event.id(), e.getMessage());
+                applier.schedule(() -> apply(event, committedAt, attempt + 1), RETRY_DELAY.toNanos(), TimeUnit.NANOSECONDS);
+                return;
+            }
+            log.error("Replicating {} of employee {} failed {} times, resynchronising the replica",
+                    event.type(), event.id(), attempt, e);
+            outOfSync();
+        }
+        // a cache miss during the lag may have cached what the replica still had, in either cache
+        employeeCache.evict(event.id());
+        secondLevelCacheEvictor.evictEmployee(event.id());
+        pending.decrementAndGet();
+    }
+
+    private void outOfSync() {
+        replicaStatus.markOutOfSync();
+        if (!resyncScheduled && !applier.isShutdown()) {
+            resyncScheduled = true;
+            applier.execute(this::resync);
+        }
+    }
+
+    // replaces the replica's employees with a copy of the primary's, tombstones included
+    private void resync() {
+        try {
+            List<Object[]> rows = primary.query(COPY_SQL, ( rs, rowNum ) -> new Object[]{rs.getLong("id"),
+                    rs.getString("first_name"), rs.getString("last_name"), rs.getString("email"),
+                    rs.getLong("version"), rs.getBoolean("deleted")});
+            replica.update("delete from employees");
+            replica.batchUpdate(INSERT_SQL, rows);
+            long copiedAt = System.nanoTime();
+            rows.stream()
+                    .filter(row -> (Boolean) row[5])
+                    .forEach(row -> tombstones.add(new Tombstone((Long) row[0], copiedAt)));
+            resyncScheduled = false;
+            replicaStatus.markInSync();
+            log.info("Replica resynchronised with {} employees of the primary", rows.size());
+        } catch (RuntimeException e) {
+            log.error("Resynchronising the replica failed, retrying in {}", RESYNC_RETRY_DELAY, e);
+            if (!applier.isShutdown()) {
+                applier.schedule(this::resync, RESYNC_RETRY_DELAY.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void purgeTombstones() {
+        try {
+            long purgeBefore = System.nanoTime() - TOMBSTONE_RETENTION.toNanos();
+            while (!tombstones.isEmpty() && tombstones.peek().deletedAt() - purgeBefore <= 0) {
+                replica.update(PURGE_TOMBSTONE_SQL, tombstones.poll().id());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Purging replica tombstones failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry ) {
+        this.lag = Timer.builder("employees.replica.lag")
+                .description("Time from commit on the primary until the change is visible on the replica")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("employees.replica.pending", pending, AtomicInteger::get)
+                .description("Committed changes not applied to the replica yet")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        applier.shutdown();
+        applier.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private record Tombstone(long id, long deletedAt) {
+    }
+}
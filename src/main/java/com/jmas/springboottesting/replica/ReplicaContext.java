@@ -0,0 +1,80 @@
+package com.jmas.springboottesting.replica;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-thread routing hints for {@link ReplicaRoutingDataSource}: reads stay on the primary once the
+ * current request has written, or when the client wrote recently (see {@link ReplicaStickinessFilter}).
+ * Threads outside of a request (purger, write-behind, statistics) are never cleared by the filter,
+ * there a write only pins the transaction it happens in.
+ */
+public final class ReplicaContext {
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private ReplicaContext() {
+    }
+
+    // called by the filter, the state lives until its clear()
+    public static void beginRequest() {
+        STATE.get().inRequest = true;
+    }
+
+    public static void stickToPrimary() {
+        STATE.get().sticky = true;
+    }
+
+    public static boolean prefersPrimary() {
+        State state = STATE.get();
+        return state.sticky || state.wrote;
+    }
+
+    static void markWrite() {
+        State state = STATE.get();
+        if (state.wrote) {
+            return;
+        }
+        if (state.inRequest) {
+            state.wrote = true;
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            state.wrote = true;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion( int status ) {
+                    state.wrote = false;
+                }
+            });
+        }
+    }
+
+    public static boolean hasWritten() {
+        return STATE.get().wrote;
+    }
+
+    // schema setup of the replica, everything in here uses the replica whatever the transaction
+    public static void runOnReplica( Runnable action ) {
+        State state = STATE.get();
+        state.forcedReplica = true;
+        try {
+            action.run();
+        } finally {
+            state.forcedReplica = false;
+        }
+    }
+
+    static boolean isForcedToReplica() {
+        return STATE.get().forcedReplica;
+    }
+
+    public static void clear() {
+        STATE.remove();
+    }
+
+    private static final class State {
+        private boolean inRequest;
+        private boolean sticky;
+        private boolean wrote;
+        private boolean forcedReplica;
+    }
+}
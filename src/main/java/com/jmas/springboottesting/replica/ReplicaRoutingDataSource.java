@@ -0,0 +1,79 @@
+package com.jmas.springboottesting.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. The read-only
+ * flag is only known once the transaction is set up, so this has to sit behind a
+ * LazyConnectionDataSourceProxy that fetches the real connection at the first statement. While the
+ * replica is out of sync reads go to the primary as well.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final Counter writes;
+
+    private final Counter stickyReads;
+
+    private final Counter replicaReads;
+
+    private final Counter outOfSyncReads;
+
+    private final ReplicaStatus replicaStatus;
+
+    public ReplicaRoutingDataSource( DataSource primary, DataSource replica, ReplicaStatus replicaStatus,
+                                     MeterRegistry meterRegistry ) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.writes = routing(meterRegistry, Target.PRIMARY, "write");
+        this.stickyReads = routing(meterRegistry, Target.PRIMARY, "sticky-read");
+        this.replicaReads = routing(meterRegistry, Target.REPLICA, "read");
+        this.outOfSyncReads = routing(meterRegistry, Target.PRIMARY, "replica-out-of-sync");
+        this.replicaStatus = replicaStatus;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+
+        if (ReplicaContext.isForcedToReplica()) {
+            return Target.REPLICA;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // connections outside of any transaction (startup, schema tooling) are not counted
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReplicaContext.markWrite();
+                writes.increment();
+            }
+            return Target.PRIMARY;
+        }
+        if (ReplicaContext.prefersPrimary()) {
+            stickyReads.increment();
+            return Target.PRIMARY;
+        }
+        if (!replicaStatus.isInSync()) {
+            outOfSyncReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    private static Counter routing( MeterRegistry meterRegistry, Target target, String reason ) {
+        return Counter.builder("employees.datasource.routing")
+                .description("Transactions by the database they were sent to")
+                .tag("target", target.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
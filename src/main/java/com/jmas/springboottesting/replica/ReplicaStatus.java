@@ -0,0 +1,35 @@
+package com.jmas.springboottesting.replica;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Whether the replica can serve reads. {@link EmployeeReplicator} marks it out of sync when a change
+ * could not be applied and in sync again once a resync copied the primary over it; meanwhile
+ * {@link ReplicaRoutingDataSource} sends every read to the primary. Reported as DEGRADED, the
+ * instance keeps serving from the primary alone.
+ */
+public class ReplicaStatus implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Reads are served by the primary until the replica is resynchronised");
+
+    private volatile boolean inSync = true;
+
+    public boolean isInSync() {
+        return inSync;
+    }
+
+    void markOutOfSync() {
+        inSync = false;
+    }
+
+    void markInSync() {
+        inSync = true;
+    }
+
+    @Override
+    public Health health() {
+        return inSync ? Health.up().build() : Health.status(DEGRADED).build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.jmas.springboottesting.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes on top of an asynchronous replica: a client that wrote in the last
+ * {@code stickyWindow} reads from the primary, so it never sees the replica before its own write.
+ * Clients are told apart by the configured header, falling back to the remote address.
+ */
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    private final String clientHeader;
+
+    // presence is the flag, entries expire with the window
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaStickinessFilter( Duration stickyWindow, String clientHeader, int maxClients ) {
+        this.clientHeader = clientHeader;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal( HttpServletRequest request, HttpServletResponse response, FilterChain filterChain )
+            throws ServletException, IOException {
+
+        String client = client(request);
+        ReplicaContext.beginRequest();
+        if (recentWriters.getIfPresent(client) != null) {
+            ReplicaContext.stickToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (ReplicaContext.hasWritten()) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+            ReplicaContext.clear();
+        }
+    }
+
+    private String client( HttpServletRequest request ) {
+        String client = request.getHeader(clientHeader);
+        return StringUtils.hasText(client) ? client : request.getRemoteAddr();
+    }
+}
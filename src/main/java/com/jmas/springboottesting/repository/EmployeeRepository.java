@@ -1,36 +1,122 @@
 package com.jmas.springboottesting.repository;
 
+import com.jmas.springboottesting.dto.EmployeeGroupCount;
+import com.jmas.springboottesting.dto.EmployeeView;
 import com.jmas.springboottesting.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
+    // query cache region of the name lookups, results are invalidated by any write to the employees table
+    String NAME_QUERIES_REGION = "employee-name-queries";
+
     Optional<Employee> findByEmail( String email );
 
+    // set-based duplicate check used by the batch insert
+    @Query(value = "select e.email from employees e where e.email in :emails", nativeQuery = true)
+    Set<String> findExistingEmails( @Param("emails") Collection<String> emails );
+
     // define custom query using JPQL with index params
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = NAME_QUERIES_REGION)})
     @Query("select e from Employee e where e.firstName =?1 and e.lastName =?2")
     Employee findByJPQL(String firstName, String lastName);
 
     // define custom query using JPQL with named params
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = NAME_QUERIES_REGION)})
     @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
     Employee findByJPQLNamedParams( @Param("firstName") String firstName,
                                     @Param("lastName") String lastName);
 
     // define custom query using Native SQL with index params
-    @Query(value = "select * from employees e where e.first_name =?1 and e.last_name =?2",
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = NAME_QUERIES_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")})
+    @Query(value = "select * from employees e where e.first_name =?1 and e.last_name =?2 and e.deleted = false",
             nativeQuery = true)
     Employee findByNativeSQL(String firstName, String lastName);
 
     // define custom query using Native SQL with named params
-    @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName",
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = NAME_QUERIES_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")})
+    @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName " +
+            "and e.deleted = false",
             nativeQuery = true)
     Employee findByNativeSQLNamed(@Param("firstName") String firstName,
                                   @Param("lastName") String lastName);
 
+    // keyset pagination on the primary key, the caller passes the last id it has already seen
+    List<Employee> findByIdGreaterThanOrderByIdAsc( long id, Pageable pageable );
+
+    // read-side projections, rows go straight into EmployeeView without touching the persistence context
+    @Query("select new com.jmas.springboottesting.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e where e.id = :id")
+    Optional<EmployeeView> findViewById( @Param("id") long id );
+
+    @Query("select new com.jmas.springboottesting.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e order by e.id")
+    List<EmployeeView> findAllViews();
+
+    @Query("select new com.jmas.springboottesting.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e where e.id in :ids")
+    List<EmployeeView> findViewsByIds( @Param("ids") Collection<Long> ids );
+
+    @Query("select new com.jmas.springboottesting.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e where e.id > :id order by e.id")
+    List<EmployeeView> findViewsAfter( @Param("id") long id, Pageable pageable );
+
+    // in-place updates, the H2 data change delta table hands back the new version in the same round trip
+    @Query(value = "select version from final table (update employees set first_name = :firstName, " +
+            "last_name = :lastName, email = :email, version = version + 1 where id = :id and deleted = false)",
+            nativeQuery = true)
+    Optional<Long> updateById( @Param("id") long id, @Param("firstName") String firstName,
+                               @Param("lastName") String lastName, @Param("email") String email );
+
+    @Query(value = "select version from final table (update employees set first_name = :firstName, " +
+            "last_name = :lastName, email = :email, version = version + 1 where id = :id and version = :version and deleted = false)",
+            nativeQuery = true)
+    Optional<Long> updateByIdAndVersion( @Param("id") long id, @Param("version") long version,
+                                         @Param("firstName") String firstName, @Param("lastName") String lastName,
+                                         @Param("email") String email );
+
+    // soft delete in one statement without loading the entity, empty when there is no live row with the id;
+    // the email is swapped for a placeholder so the unique index frees it right away, not when the row is purged
+    @Query(value = "select id from final table (update employees set deleted = true, email = concat('tombstone:', id), " +
+            "version = version + 1 where id = :id and deleted = false)",
+            nativeQuery = true)
+    Optional<Long> softDeleteById( @Param("id") long id );
+
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById( @Param("id") long id );
+
+    // the groupings of EmployeeStatistics, used to reconcile its counters; expressions must match its own
+    @Query("select new com.jmas.springboottesting.dto.EmployeeGroupCount(lower(substring(e.email, locate('@', e.email) + 1)), " +
+            "count(e)) from Employee e group by lower(substring(e.email, locate('@', e.email) + 1))")
+    List<EmployeeGroupCount> countByEmailDomain();
+
+    @Query("select new com.jmas.springboottesting.dto.EmployeeGroupCount(upper(substring(e.lastName, 1, 1)), count(e)) " +
+            "from Employee e group by upper(substring(e.lastName, 1, 1))")
+    List<EmployeeGroupCount> countByLastNameInitial();
+
+    // forward-only cursor over the whole table, has to be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.jmas.springboottesting.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e order by e.id")
+    Stream<EmployeeView> streamAllViews();
 
 }
@@ -0,0 +1,36 @@
+package com.jmas.springboottesting.repository.reactive;
+
+import com.jmas.springboottesting.model.Employee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+public interface ReactiveEmployeeRepository extends R2dbcRepository<Employee, Long> {
+
+    // @SQLRestriction is Hibernate only, soft deleted rows are filtered explicitly here
+    @Query("select * from employees where id = :id and deleted = false")
+    Mono<Employee> findActiveById( long id );
+
+    // rows are emitted as the driver reads them, honouring subscriber demand
+    @Query("select * from employees where deleted = false order by id")
+    Flux<Employee> streamAll();
+
+    // bumps the version column the same way Hibernate's @Version does, so ETags stay valid across both stacks
+    @Modifying
+    @Query("update employees set first_name = :firstName, last_name = :lastName, email = :email, " +
+            "version = version + 1 where id = :id and deleted = false")
+    Mono<Integer> updateById( long id, String firstName, String lastName, String email );
+
+    @Modifying
+    @Query("update employees set deleted = true, email = concat('tombstone:', id), version = version + 1 " +
+            "where id = :id and deleted = false")
+    Mono<Integer> softDeleteById( long id );
+
+    // ids come from the same sequence Hibernate uses, with pooled-lo every value starts a free block
+    @Query("select next value for employees_seq")
+    Mono<Long> nextId();
+
+}
@@ -0,0 +1,221 @@
+package com.jmas.springboottesting.search;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over employee names and emails, used for type-ahead search.
+ * Terms are kept in a sorted map so a prefix lookup is a single range scan. Searches never
+ * lock; writers are serialized so a term's id set can be dropped once it is empty.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    // upper bound of ids looked at per search, keeps one-letter queries over big tables cheap
+    private static final int MAX_CANDIDATES = 10_000;
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score)
+            .thenComparingInt(match -> -match.document().nameLength())
+            .thenComparingLong(match -> -match.document().employee().id());
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    // ids deleted while a rebuild is streaming the table, so a stale row does not come back
+    private final Set<Long> deletedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile boolean rebuilding;
+
+    public void put( EmployeeView employee ) {
+
+        writeLock.lock();
+        try {
+            Document previous = documents.get(employee.id());
+            if (previous != null && previous.employee().version() > employee.version()) {
+                return;
+            }
+            if (rebuilding && deletedDuringRebuild.contains(employee.id())) {
+                return;
+            }
+            if (previous != null) {
+                unindex(previous);
+            }
+            Document document = Document.of(employee);
+            documents.put(employee.id(), document);
+            for (String term : document.terms()) {
+                postings.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(employee.id());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove( long id ) {
+
+        writeLock.lock();
+        try {
+            if (rebuilding) {
+                deletedDuringRebuild.add(id);
+            }
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void unindex( Document document ) {
+        for (String term : document.terms()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(document.employee().id());
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public void beginRebuild() {
+        deletedDuringRebuild.clear();
+        rebuilding = true;
+    }
+
+    public void endRebuild() {
+        rebuilding = false;
+        deletedDuringRebuild.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Employees matching every word of {@code query} as a prefix of their first name, last name or
+     * email, best matches first: whole-word name matches, then name prefixes, then email matches.
+     */
+    public List<EmployeeView> search( String query, int limit ) {
+
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        // the longest word is usually the most selective one, use it to collect the candidates
+        String selective = Arrays.stream(tokens).max(Comparator.comparingInt(String::length)).orElseThrow();
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (Set<Long> ids : postings.subMap(selective, true, selective + Character.MAX_VALUE, false).values()) {
+            for (Long id : ids) {
+                candidates.add(id);
+                if (candidates.size() >= MAX_CANDIDATES) {
+                    break;
+                }
+            }
+            if (candidates.size() >= MAX_CANDIDATES) {
+                break;
+            }
+        }
+
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING);
+        for (Long id : candidates) {
+            Document document = documents.get(id);
+            int score = document == null ? 0 : document.score(tokens);
+            if (score > 0) {
+                best.add(new Match(document, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<EmployeeView> results = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            results.add(best.poll().document().employee());
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    static String[] tokenize( String text ) {
+        if (text == null) {
+            return new String[0];
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(NON_ALPHANUMERIC.split(normalized.toLowerCase()))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private record Match(Document document, int score) {
+    }
+
+    private record Document(EmployeeView employee, String[] nameTerms, String[] emailTerms) {
+
+        static Document of( EmployeeView employee ) {
+            // queries are split the same way, so a typed "perico@pal" looks for "perico" and "pal"
+            return new Document(employee, tokenize(employee.firstName() + " " + employee.lastName()),
+                    tokenize(employee.email()));
+        }
+
+        Set<String> terms() {
+            Set<String> terms = new HashSet<>(Arrays.asList(nameTerms));
+            terms.addAll(Arrays.asList(emailTerms));
+            return terms;
+        }
+
+        int nameLength() {
+            return Arrays.stream(nameTerms).mapToInt(String::length).sum();
+        }
+
+        // every query word has to match something, the document scores the best match of each word
+        int score( String[] tokens ) {
+            int score = 0;
+            for (String token : tokens) {
+                int best = Math.max(best(nameTerms, token, 4, 3), best(emailTerms, token, 2, 1));
+                if (best == 0) {
+                    return 0;
+                }
+                score += best;
+            }
+            return score;
+        }
+
+        private static int best( String[] terms, String token, int exact, int prefix ) {
+            int best = 0;
+            for (String term : terms) {
+                if (term.equals(token)) {
+                    return exact;
+                }
+                if (term.startsWith(token)) {
+                    best = prefix;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.jmas.springboottesting.search;
+
+import com.jmas.springboottesting.event.EmployeeEvent;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps {@link EmployeeSearchIndex} in step with the table: fills it in the background once the
+ * application is up and then applies every committed employee write.
+ */
+@Component
+public class EmployeeSearchIndexUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchIndexUpdater.class);
+
+    private final EmployeeSearchIndex searchIndex;
+
+    private final EmployeeService employeeService;
+
+    public EmployeeSearchIndexUpdater( EmployeeSearchIndex searchIndex, EmployeeService employeeService ) {
+        this.searchIndex = searchIndex;
+        this.employeeService = employeeService;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+
+        long start = System.nanoTime();
+        searchIndex.beginRebuild();
+        try {
+            employeeService.streamAllEmployees(searchIndex::put);
+        } finally {
+            searchIndex.endRebuild();
+        }
+        log.info("Employee search index built with {} employees in {} ms", searchIndex.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // after commit, a rolled back write never reaches the index
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent( EmployeeEvent event ) {
+
+        if (event.type() == EmployeeEvent.Type.DELETED) {
+            searchIndex.remove(event.id());
+        } else {
+            searchIndex.put(event.employee());
+        }
+    }
+}
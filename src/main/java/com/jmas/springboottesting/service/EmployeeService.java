@@ -1,20 +1,43 @@
 package com.jmas.springboottesting.service;
 
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeListVersion;
+import com.jmas.springboottesting.dto.EmployeeLookupResult;
+import com.jmas.springboottesting.dto.EmployeeView;
 import com.jmas.springboottesting.model.Employee;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
 
-    List<Employee> getAllEmployees();
+    List<EmployeeBatchResult> saveEmployees( List<Employee> employees);
+
+    List<EmployeeView> getAllEmployees();
+
+    List<EmployeeView> getEmployeesAfter( long afterId, int limit);
+
+    void streamAllEmployees( Consumer<EmployeeView> action);
+
+    List<EmployeeView> searchEmployees( String query, int limit);
+
+    Optional<EmployeeView> getEmployeeViewById( long id);
+
+    List<EmployeeLookupResult> getEmployeesByIds( List<Long> ids);
 
     Optional<Employee> getEmployeeById( long id);
 
-    Employee updateEmployee(Employee employee);
+    Optional<Long> getEmployeeVersion( long id);
+
+    EmployeeListVersion getEmployeesVersion();
+
+    Optional<EmployeeView> updateEmployee( long id, Employee employee);
+
+    Optional<EmployeeView> updateEmployee( long id, Employee employee, long expectedVersion);
 
-    void deleteEmployee(long id);
+    boolean deleteEmployee(long id);
 
 
 }
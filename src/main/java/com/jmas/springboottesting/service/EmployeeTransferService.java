@@ -0,0 +1,18 @@
+package com.jmas.springboottesting.service;
+
+import com.jmas.springboottesting.dto.EmployeeImportResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface EmployeeTransferService {
+
+    enum Format {
+        CSV,
+        NDJSON
+    }
+
+    EmployeeImportResult importEmployees( InputStream input, Format format, long offset);
+
+    void exportEmployees( OutputStream output, Format format);
+}
@@ -0,0 +1,19 @@
+package com.jmas.springboottesting.service;
+
+import com.jmas.springboottesting.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+
+    Flux<Employee> getAllEmployees();
+
+    Mono<Employee> getEmployeeById( long id);
+
+    Mono<Employee> updateEmployee(Employee employee);
+
+    Mono<Void> deleteEmployee(long id);
+
+
+}
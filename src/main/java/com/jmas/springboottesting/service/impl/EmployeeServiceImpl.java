@@ -1,53 +1,295 @@
 package com.jmas.springboottesting.service.impl;
 
-import com.jmas.springboottesting.exception.ResourceNotFoundException;
+import com.jmas.springboottesting.cache.EmployeeCache;
+import com.jmas.springboottesting.cache.SecondLevelCacheEvictor;
+import com.jmas.springboottesting.changes.EmployeeListVersionTracker;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeListVersion;
+import com.jmas.springboottesting.dto.EmployeeLookupResult;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
 import com.jmas.springboottesting.model.Employee;
 import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.search.EmployeeSearchIndex;
 import com.jmas.springboottesting.service.EmployeeService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+@Timed("employee.service")
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // rows per duplicate lookup and flush, a multiple of hibernate.jdbc.batch_size
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    // ids per IN list of a multi-get, keeps the statement well below H2's parameter limits
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    private static final String EMAIL_UNIQUE_INDEX = "ux_employees_email";
 
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl( EmployeeRepository employeeRepository ) {
+    private EntityManager entityManager;
+
+    private EmployeeCache employeeCache;
+
+    private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeListVersionTracker listVersionTracker;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    public EmployeeServiceImpl( EmployeeRepository employeeRepository, EntityManager entityManager,
+                                EmployeeCache employeeCache, SecondLevelCacheEvictor secondLevelCacheEvictor,
+                                EmployeeSearchIndex employeeSearchIndex, ApplicationEventPublisher eventPublisher,
+                                EmployeeListVersionTracker listVersionTracker,
+                                PlatformTransactionManager transactionManager ) {
         this.employeeRepository= employeeRepository;
+        this.entityManager = entityManager;
+        this.employeeCache = employeeCache;
+        this.secondLevelCacheEvictor = secondLevelCacheEvictor;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.listVersionTracker = listVersionTracker;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Override
     public Employee saveEmployee( Employee employee ) {
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if(savedEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee already exists with given email:" + employee.getEmail());
+        // only a cache hint, the unique index on email is what actually rejects duplicates
+        if(employeeCache.getIdIfPresent(employee.getEmail()).isPresent()){
+            throw new EmployeeAlreadyExistsException(employee.getEmail());
+        }
+
+        Employee savedEmployee = saveAndFlush(employee);
+        EmployeeView view = EmployeeView.of(savedEmployee);
+        employeeCache.put(view);
+        eventPublisher.publishEvent(EmployeeEvent.created(view));
+        return savedEmployee;
+    }
+
+    private Employee saveAndFlush( Employee employee ) {
+        return translateEmailViolation(employee, () -> employeeRepository.saveAndFlush(employee));
+    }
+
+    private static boolean isEmailViolation( DataIntegrityViolationException e ) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(EMAIL_UNIQUE_INDEX);
+    }
+
+    @Override
+    @Transactional
+    public List<EmployeeBatchResult> saveEmployees( List<Employee> employees ) {
+
+        List<EmployeeBatchResult> results = new ArrayList<>(employees.size());
+        Set<String> seenEmails = new HashSet<>();
+        for (int from = 0; from < employees.size(); from += BATCH_CHUNK_SIZE) {
+            List<Employee> chunk = employees.subList(from, Math.min(from + BATCH_CHUNK_SIZE, employees.size()));
+
+            Set<String> emails = new HashSet<>();
+            chunk.forEach(employee -> emails.add(employee.getEmail()));
+            emails.remove(null);
+            Set<String> existingEmails = emails.isEmpty() ? Set.of() : employeeRepository.findExistingEmails(emails);
+
+            List<Employee> toInsert = new ArrayList<>(chunk.size());
+            List<Integer> toInsertIndexes = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Employee employee = chunk.get(i);
+                int index = from + i;
+                if (!isValid(employee)) {
+                    results.add(EmployeeBatchResult.rejected(index, employee.getEmail(), EmployeeBatchResult.Status.INVALID));
+                } else if (existingEmails.contains(employee.getEmail()) || !seenEmails.add(employee.getEmail())) {
+                    results.add(EmployeeBatchResult.rejected(index, employee.getEmail(), EmployeeBatchResult.Status.DUPLICATE));
+                } else {
+                    toInsert.add(employee);
+                    toInsertIndexes.add(index);
+                    results.add(null);
+                }
+            }
+
+            employeeRepository.saveAll(toInsert);
+            entityManager.flush();
+            entityManager.clear();
+            for (int i = 0; i < toInsert.size(); i++) {
+                Employee employee = toInsert.get(i);
+                int index = toInsertIndexes.get(i);
+                results.set(index, EmployeeBatchResult.created(index, employee.getEmail(), employee.getId()));
+                eventPublisher.publishEvent(EmployeeEvent.created(EmployeeView.of(employee)));
+            }
+        }
+        return results;
+    }
+
+    private static boolean isValid( Employee employee ) {
+        return StringUtils.hasText(employee.getFirstName())
+                && StringUtils.hasText(employee.getLastName())
+                && StringUtils.hasText(employee.getEmail());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployees() {
+        return employeeRepository.findAllViews();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getEmployeesAfter( long afterId, int limit ) {
+        return employeeRepository.findViewsAfter(afterId, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEmployees( Consumer<EmployeeView> action ) {
+
+        try (Stream<EmployeeView> employees = employeeRepository.streamAllViews()) {
+            employees.forEach(action);
         }
+    }
+
+    // served from memory only, employees written moments ago show up once their event is applied
+    @Override
+    public List<EmployeeView> searchEmployees( String query, int limit ) {
+        return employeeSearchIndex.search(query, limit);
+    }
 
-        return employeeRepository.save(employee);
+    // deliberately not transactional, a cache hit must not borrow a connection; misses are read in a
+    // read-only transaction so they can be served by a replica
+    @Override
+    public Optional<EmployeeView> getEmployeeViewById( long id ) {
+        return employeeCache.getById(id, key -> readOnly(() -> employeeRepository.findViewById(key)));
     }
 
+    // cache first, then one IN query per chunk of misses; duplicates in the request are answered twice
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    public List<EmployeeLookupResult> getEmployeesByIds( List<Long> ids ) {
+
+        Map<Long, EmployeeView> employees = employeeCache.getAllById(new LinkedHashSet<>(ids), misses -> readOnly(() -> {
+            List<Long> missingIds = List.copyOf(misses);
+            List<EmployeeView> loaded = new ArrayList<>(missingIds.size());
+            for (int from = 0; from < missingIds.size(); from += LOOKUP_CHUNK_SIZE) {
+                loaded.addAll(employeeRepository.findViewsByIds(
+                        missingIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, missingIds.size()))));
+            }
+            return loaded;
+        }));
+        return ids.stream()
+                .map(id -> Optional.ofNullable(employees.get(id))
+                        .map(EmployeeLookupResult::found)
+                        .orElseGet(() -> EmployeeLookupResult.missing(id)))
+                .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Employee> getEmployeeById( long id ) {
         return employeeRepository.findById(id);
     }
 
     @Override
-    public Employee updateEmployee( Employee employee ) {
-        return employeeRepository.save(employee);
+    public Optional<Long> getEmployeeVersion( long id ) {
+        return employeeCache.getIfPresent(id)
+                .map(EmployeeView::version)
+                .or(() -> readOnly(() -> employeeRepository.findVersionById(id)));
+    }
+
+    private <T> T readOnly( Supplier<T> query ) {
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    @Override
+    public EmployeeListVersion getEmployeesVersion() {
+        return listVersionTracker.current();
     }
 
     @Override
-    public void deleteEmployee( long id ) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    public Optional<EmployeeView> updateEmployee( long id, Employee employee ) {
+
+        return updated(id, employee, translateEmailViolation(employee,
+                () -> employeeRepository.updateById(id, employee.getFirstName(), employee.getLastName(),
+                        employee.getEmail())));
+    }
+
+    @Override
+    @Transactional
+    public Optional<EmployeeView> updateEmployee( long id, Employee employee, long expectedVersion ) {
+
+        Optional<Long> version = translateEmailViolation(employee,
+                () -> employeeRepository.updateByIdAndVersion(id, expectedVersion, employee.getFirstName(),
+                        employee.getLastName(), employee.getEmail()));
+        // nothing matched, tell a missing row apart from a stale version only on this failure path
+        if (version.isEmpty() && employeeRepository.findVersionById(id).isPresent()) {
+            employeeCache.evict(id);
+            throw new OptimisticLockingFailureException("Employee " + id + " is no longer at version " + expectedVersion);
+        }
+        return updated(id, employee, version);
+    }
+
+    private Optional<EmployeeView> updated( long id, Employee employee, Optional<Long> version ) {
+
+        employeeCache.evict(id);
+        secondLevelCacheEvictor.evictEmployee(id);
+        return version.map(newVersion -> {
+            EmployeeView view = new EmployeeView(id, employee.getFirstName(), employee.getLastName(),
+                    employee.getEmail(), newVersion);
+            employeeCache.put(view);
+            eventPublisher.publishEvent(EmployeeEvent.updated(view));
+            return view;
+        });
+    }
+
+    private static <T> T translateEmailViolation( Employee employee, Supplier<T> update ) {
+        try {
+            return update.get();
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailViolation(e)) {
+                throw new EmployeeAlreadyExistsException(employee.getEmail(), e);
+            }
+            throw e;
+        }
+    }
+
+    // tombstones the row, EmployeePurger removes it later
+    @Override
+    @Transactional
+    public boolean deleteEmployee( long id ) {
+        if (employeeRepository.softDeleteById(id).isEmpty()) {
+            return false;
+        }
+        employeeCache.evict(id);
+        secondLevelCacheEvictor.evictEmployee(id);
+        eventPublisher.publishEvent(EmployeeEvent.deleted(id));
+        return true;
     }
 
 }
@@ -0,0 +1,166 @@
+package com.jmas.springboottesting.service.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeImportResult;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.EmployeeService;
+import com.jmas.springboottesting.service.EmployeeTransferService;
+import com.jmas.springboottesting.shard.EmployeeShardRouter;
+import com.jmas.springboottesting.shard.ShardContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class EmployeeTransferServiceImpl implements EmployeeTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeTransferServiceImpl.class);
+
+    // rows per transaction, each chunk is committed before the next one is parsed
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String EXPORT_SQL = "select id, first_name, last_name, email, version from employees " +
+            "where deleted = false order by id";
+
+    private static final String[] CSV_COLUMNS = {"id", "firstName", "lastName", "email", "version"};
+
+    private final EmployeeService employeeService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final EmployeeShardRouter shardRouter;
+
+    private final ObjectReader csvReader;
+
+    private final ObjectReader ndjsonReader;
+
+    private final ObjectWriter csvWriter;
+
+    private final ObjectWriter ndjsonWriter;
+
+    public EmployeeTransferServiceImpl( EmployeeService employeeService, JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager, EmployeeShardRouter shardRouter,
+                                        ObjectMapper objectMapper ) {
+        this.employeeService = employeeService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+
+        // id and version columns of an export are accepted and ignored, imports always create
+        CsvMapper csvMapper = new CsvMapper();
+        this.csvReader = csvMapper.readerFor(Employee.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.csvWriter = csvMapper.writerFor(EmployeeView.class)
+                .with(csvMapper.schemaFor(EmployeeView.class).sortedBy(CSV_COLUMNS).withHeader());
+        this.ndjsonReader = objectMapper.readerFor(Employee.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.ndjsonWriter = objectMapper.writerFor(EmployeeView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+    }
+
+    @Override
+    public EmployeeImportResult importEmployees( InputStream input, Format format, long offset ) {
+
+        long row = 0;
+        long committed = offset;
+        long created = 0;
+        long duplicates = 0;
+        long invalid = 0;
+        List<Employee> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        try (MappingIterator<Employee> rows = (format == Format.CSV ? csvReader : ndjsonReader).readValues(input)) {
+            while (true) {
+                boolean hasNext = rows.hasNextValue();
+                if (hasNext) {
+                    Employee employee = rows.nextValue();
+                    if (row++ < offset) {
+                        continue;
+                    }
+                    chunk.add(Employee.builder()
+                            .firstName(employee.getFirstName())
+                            .lastName(employee.getLastName())
+                            .email(employee.getEmail())
+                            .build());
+                }
+                if (chunk.size() == IMPORT_CHUNK_SIZE || (!hasNext && !chunk.isEmpty())) {
+                    // saveEmployees runs in its own transaction, so every chunk commits on its own;
+                    // it gets a copy, the buffer is reused for the next chunk
+                    for (EmployeeBatchResult result : employeeService.saveEmployees(List.copyOf(chunk))) {
+                        switch (result.status()) {
+                            case CREATED -> created++;
+                            case DUPLICATE -> duplicates++;
+                            case INVALID -> invalid++;
+                        }
+                    }
+                    committed += chunk.size();
+                    chunk.clear();
+                }
+                if (!hasNext) {
+                    return new EmployeeImportResult(offset, committed, created, duplicates, invalid, true, null);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Employee import stopped at row {}: {}", committed, e.getMessage());
+            return new EmployeeImportResult(offset, committed, created, duplicates, invalid, false, e.getMessage());
+        }
+    }
+
+    // one shard after the other, shards own ascending id ranges so the export stays in id order
+    @Override
+    public void exportEmployees( OutputStream output, Format format ) {
+
+        try (SequenceWriter writer = (format == Format.CSV ? csvWriter : ndjsonWriter).writeValues(output)) {
+            shardRouter.shards().forEach(shard -> ShardContext.runOn(shard,
+                    () -> readOnlyTransaction.executeWithoutResult(status -> export(writer))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // forward-only, read-only cursor: rows are written as they are fetched, never collected
+    private void export( SequenceWriter writer ) {
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                writer.write(new EmployeeView(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getLong(5)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.jmas.springboottesting.service.impl;
+
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.reactive.ReactiveEmployeeRepository;
+import com.jmas.springboottesting.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Profile("reactive")
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    public ReactiveEmployeeServiceImpl( ReactiveEmployeeRepository employeeRepository, R2dbcEntityTemplate entityTemplate ) {
+        this.employeeRepository = employeeRepository;
+        this.entityTemplate = entityTemplate;
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee( Employee employee ) {
+
+        // the id is assigned up front, so insert explicitly instead of letting save() pick an UPDATE
+        return employeeRepository.nextId()
+                .flatMap(id -> {
+                    employee.setId(id);
+                    return entityTemplate.insert(employee);
+                })
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new EmployeeAlreadyExistsException(employee.getEmail(), e));
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return employeeRepository.streamAll();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById( long id ) {
+        return employeeRepository.findActiveById(id);
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee( Employee employee ) {
+        return employeeRepository.updateById(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                        employee.getEmail())
+                .flatMap(updated -> updated == 0 ? Mono.<Employee>empty() : employeeRepository.findActiveById(employee.getId()))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new EmployeeAlreadyExistsException(employee.getEmail(), e));
+    }
+
+    @Override
+    public Mono<Void> deleteEmployee( long id ) {
+        return employeeRepository.softDeleteById(id).then();
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.jmas.springboottesting.shard;
+
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Global email uniqueness of the sharded profile. An employee stays on the shard of its id, but an
+ * update can give it an email that hashes to another shard, whose unique index never sees it. So
+ * every live email is also claimed in the employee_emails table of the shard it hashes to, and that
+ * primary key decides between writers on any shard. Creates reserve the email in the transaction
+ * that inserts the employee, updates claim the new email before writing and release the old one
+ * afterwards. A claim left behind, by a crash or by two racing updates of the same employee, no
+ * longer matches its employee and is dropped by the next writer of that email once it is older than
+ * the grace period.
+ */
+@Profile("sharded")
+@Component
+public class EmployeeEmailDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeEmailDirectory.class);
+
+    // owner of a reservation until the employee has its id, ids start at 1
+    private static final long PENDING = 0;
+
+    private static final String INSERT_SQL =
+            "insert into employee_emails (email, employee_id, claimed_at) values (?, ?, ?)";
+
+    private static final String ASSIGN_SQL =
+            "update employee_emails set employee_id = ? where email = ? and employee_id = " + PENDING;
+
+    private static final String OWNER_SQL = "select employee_id from employee_emails where email = ?";
+
+    private static final String RELEASE_SQL = "delete from employee_emails where email = ? and employee_id = ?";
+
+    private static final String RELEASE_STALE_SQL =
+            "delete from employee_emails where email = ? and employee_id = ? and claimed_at < ?";
+
+    private static final String HAS_EMAIL_SQL =
+            "select count(*) from employees where id = ? and email = ? and deleted = false";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EmployeeShardRouter shardRouter;
+
+    private final Duration grace;
+
+    public EmployeeEmailDirectory( JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   EmployeeShardRouter shardRouter,
+                                   @Value("${employee.shards.email-claim-grace:PT1M}") Duration grace ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.grace = grace;
+    }
+
+    // on the current shard, emails that are already claimed there
+    public Set<String> claimedEmails( Collection<String> emails ) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(",", emails.stream().map(email -> "?").toList());
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select email from employee_emails where email in (" + placeholders + ")", String.class, emails.toArray()));
+    }
+
+    // on the current shard, in the transaction that creates the employees, before they are inserted;
+    // a DuplicateKeyException means one of the emails is taken and the transaction has to go
+    public void reserve( Collection<String> emails ) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, emails.stream()
+                .map(email -> new Object[]{email, PENDING, now})
+                .toList());
+    }
+
+    // in the same transaction once the employees are inserted, reservations without one are dropped
+    public void settle( Collection<String> reserved, Map<String, Long> idsByEmail ) {
+        jdbcTemplate.batchUpdate(ASSIGN_SQL, idsByEmail.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList());
+        jdbcTemplate.batchUpdate(RELEASE_SQL, reserved.stream()
+                .filter(email -> !idsByEmail.containsKey(email))
+                .map(email -> new Object[]{email, PENDING})
+                .toList());
+    }
+
+    // outside of any transaction, before the employee is written with the new email
+    public void claim( String email, long id ) {
+        int shard = shardRouter.shardForEmail(email);
+        try {
+            register(shard, email, id);
+        } catch (DuplicateKeyException e) {
+            Long owner = ownerOf(email);
+            if (owner != null && owner == id) {
+                return;
+            }
+            if (!releaseIfStale(email)) {
+                throw new EmployeeAlreadyExistsException(email, e);
+            }
+            try {
+                register(shard, email, id);
+            } catch (DuplicateKeyException retried) {
+                throw new EmployeeAlreadyExistsException(email, retried);
+            }
+        }
+    }
+
+    // outside of any transaction, once the employee should no longer have the email; a claim the
+    // employee still uses, say after a failed update that raced a successful one, is kept
+    public void release( String email, long id ) {
+        if (!hasEmail(id, email)) {
+            inTransactionOn(shardRouter.shardForEmail(email), () -> jdbcTemplate.update(RELEASE_SQL, email, id));
+        }
+    }
+
+    // a writer ran into a claim of the email: drops it when its employee does not have the email and
+    // the grace period for the claimer to finish has passed, true when the email is free now
+    public boolean releaseIfStale( String email ) {
+        Long owner = ownerOf(email);
+        if (owner == null) {
+            return true;
+        }
+        if (hasEmail(owner, email)) {
+            return false;
+        }
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(grace));
+        boolean released = inTransactionOn(shardRouter.shardForEmail(email),
+                () -> jdbcTemplate.update(RELEASE_STALE_SQL, email, owner, cutoff)) == 1;
+        if (released) {
+            log.info("Dropped stale claim of employee {} on an email", owner);
+        }
+        return released;
+    }
+
+    // the table itself, created with the schema of every shard; a directory added to shards that
+    // already hold employees is filled from them
+    public void initialize() {
+        long created = shardRouter.shards()
+                .filter(shard -> inTransactionOn(shard, this::createTable))
+                .count();
+        if (created == 0) {
+            return;
+        }
+        shardRouter.shards().forEach(shard -> {
+            List<Map<String, Object>> employees = inTransactionOn(shard,
+                    () -> jdbcTemplate.queryForList("select id, email from employees where deleted = false"));
+            employees.forEach(employee -> inTransactionOn(shardRouter.shardForEmail((String) employee.get("email")),
+                    () -> jdbcTemplate.update("merge into employee_emails (email, employee_id, claimed_at) key (email) " +
+                            "values (?, ?, ?)", employee.get("email"), employee.get("id"), Timestamp.from(Instant.now()))));
+        });
+    }
+
+    private void register( int shard, String email, long id ) {
+        inTransactionOn(shard, () -> jdbcTemplate.update(INSERT_SQL, email, id, Timestamp.from(Instant.now())));
+    }
+
+    private boolean createTable() {
+        boolean exists = jdbcTemplate.queryForObject("select count(*) from information_schema.tables " +
+                "where table_name = 'EMPLOYEE_EMAILS'", Long.class) > 0;
+        if (!exists) {
+            jdbcTemplate.execute("create table employee_emails (email varchar(255) primary key, " +
+                    "employee_id bigint not null, claimed_at timestamp not null)");
+        }
+        return !exists;
+    }
+
+    private boolean hasEmail( long id, String email ) {
+        return inTransactionOn(shardRouter.shardForId(id),
+                () -> jdbcTemplate.queryForObject(HAS_EMAIL_SQL, Long.class, id, email)) > 0;
+    }
+
+    private Long ownerOf( String email ) {
+        List<Long> owners = inTransactionOn(shardRouter.shardForEmail(email),
+                () -> jdbcTemplate.queryForList(OWNER_SQL, Long.class, email));
+        return owners.isEmpty() ? null : owners.get(0);
+    }
+
+    private <T> T inTransactionOn( int shard, Supplier<T> work ) {
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> work.get()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.jmas.springboottesting.shard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.IntStream;
+
+/**
+ * Placement rules of the employee shards. New employees go to the shard their email hashes to, and
+ * every shard hands out ids from its own range, so afterwards the id alone names the shard. Without
+ * the sharded profile there is a single shard and every rule answers 0.
+ */
+@Component
+public class EmployeeShardRouter {
+
+    private final int shardCount;
+
+    private final long idRange;
+
+    public EmployeeShardRouter( @Value("${employee.shards.count:1}") int shardCount,
+                                @Value("${employee.shards.id-range:1000000000000}") long idRange ) {
+        if (shardCount < 1 || idRange < 1) {
+            throw new IllegalArgumentException("employee.shards.count and employee.shards.id-range must be positive");
+        }
+        this.shardCount = shardCount;
+        this.idRange = idRange;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public IntStream shards() {
+        return IntStream.range(0, shardCount);
+    }
+
+    // shard k owns ids k * idRange + 1 up to (k + 1) * idRange
+    public int shardForId( long id ) {
+        return (int) Math.min(shardCount - 1, Math.max(0, (id - 1) / idRange));
+    }
+
+    // String.hashCode is specified, so placement does not change between JVMs or restarts
+    public int shardForEmail( String email ) {
+        return email == null ? 0 : Math.floorMod(email.hashCode(), shardCount);
+    }
+
+    public long firstId( int shard ) {
+        return shard * idRange + 1;
+    }
+}
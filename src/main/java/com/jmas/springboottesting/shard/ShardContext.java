@@ -0,0 +1,48 @@
+package com.jmas.springboottesting.shard;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard the current thread talks to. The routing datasource reads it when a connection is
+ * obtained, i.e. when a transaction begins, so it has to be set before the transactional call and
+ * cannot change inside one. Threads that never set it use shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    public static <T> T callOn( int shard, Supplier<T> action ) {
+
+        if (shard != current() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard " + current());
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void runOn( int shard, Runnable action ) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.jmas.springboottesting.shard;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Tags every Hibernate session with its shard. The only reason is the pooled-lo id optimizer,
+ * which keeps one block of ids per tenant: without this, a block fetched from one shard's
+ * sequence would be handed out for inserts into another shard.
+ */
+public class ShardTenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return "shard-" + ShardContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -0,0 +1,311 @@
+package com.jmas.springboottesting.shard;
+
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeListVersion;
+import com.jmas.springboottesting.dto.EmployeeLookupResult;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.EmployeeService;
+import com.jmas.springboottesting.service.impl.EmployeeServiceImpl;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * EmployeeService of the sharded profile. Every call is sent to the shard that owns the data before
+ * {@link EmployeeServiceImpl} opens its transaction; calls that need all employees go to every shard
+ * in parallel and put the answers back together. Ranges make merging trivial: all ids of a shard
+ * are below those of the next one, so per-shard results in shard order are already in id order.
+ * Writes that touch several shards, like a batch create, commit shard by shard. New employees go to
+ * the shard their email hashes to and stay on it when their email changes; {@link EmployeeEmailDirectory}
+ * keeps emails unique across shards.
+ */
+@Primary
+@Profile("sharded")
+@Service
+public class ShardedEmployeeService implements EmployeeService {
+
+    private final EmployeeServiceImpl employeeService;
+
+    private final EmployeeShardRouter shardRouter;
+
+    private final EmployeeEmailDirectory emailDirectory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // scatter-gather queries block on JDBC, one virtual thread per shard query
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedEmployeeService( EmployeeServiceImpl employeeService, EmployeeShardRouter shardRouter,
+                                   EmployeeEmailDirectory emailDirectory,
+                                   PlatformTransactionManager transactionManager ) {
+        this.employeeService = employeeService;
+        this.shardRouter = shardRouter;
+        this.emailDirectory = emailDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public Employee saveEmployee( Employee employee ) {
+
+        int shard = shardRouter.shardForEmail(employee.getEmail());
+        try {
+            return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> create(employee)));
+        } catch (DuplicateKeyException e) {
+            if (!emailDirectory.releaseIfStale(employee.getEmail())) {
+                throw new EmployeeAlreadyExistsException(employee.getEmail(), e);
+            }
+            try {
+                return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> create(employee)));
+            } catch (DuplicateKeyException retried) {
+                throw new EmployeeAlreadyExistsException(employee.getEmail(), retried);
+            }
+        }
+    }
+
+    // the email is reserved before the insert, so a taken one fails before anything is published
+    private Employee create( Employee employee ) {
+
+        List<String> emails = Stream.ofNullable(employee.getEmail()).toList();
+        emailDirectory.reserve(emails);
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+        emailDirectory.settle(emails, Map.of(savedEmployee.getEmail(), savedEmployee.getId()));
+        return savedEmployee;
+    }
+
+    @Override
+    public List<EmployeeBatchResult> saveEmployees( List<Employee> employees ) {
+
+        // equal emails hash to the same shard, so duplicates inside the request are still caught there
+        Map<Integer, List<Integer>> indexesByShard = new HashMap<>();
+        for (int i = 0; i < employees.size(); i++) {
+            indexesByShard.computeIfAbsent(shardRouter.shardForEmail(employees.get(i).getEmail()),
+                    shard -> new ArrayList<>()).add(i);
+        }
+
+        EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+        indexesByShard.forEach(( shard, indexes ) -> {
+            List<EmployeeBatchResult> shardResults = createAll(shard, indexes.stream().map(employees::get).toList());
+            for (EmployeeBatchResult result : shardResults) {
+                int index = indexes.get(result.index());
+                results[index] = new EmployeeBatchResult(index, result.email(), result.status(), result.id());
+            }
+        });
+        return List.of(results);
+    }
+
+    private List<EmployeeBatchResult> createAll( int shard, List<Employee> employees ) {
+
+        Set<String> emails = employees.stream()
+                .map(Employee::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // claims left behind by a crashed writer should not turn these into duplicates
+        ShardContext.callOn(shard, () -> emailDirectory.claimedEmails(emails)).forEach(emailDirectory::releaseIfStale);
+        try {
+            return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> createAll(employees, emails)));
+        } catch (DuplicateKeyException e) {
+            // an update on another shard claimed one of the emails meanwhile, now it is a duplicate
+            return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> createAll(employees, emails)));
+        }
+    }
+
+    private List<EmployeeBatchResult> createAll( List<Employee> employees, Set<String> emails ) {
+
+        Set<String> claimed = emailDirectory.claimedEmails(emails);
+        Set<String> reserved = new HashSet<>(emails);
+        reserved.removeAll(claimed);
+        emailDirectory.reserve(reserved);
+
+        EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+        List<Integer> indexes = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            String email = employees.get(i).getEmail();
+            if (claimed.contains(email)) {
+                results[i] = EmployeeBatchResult.rejected(i, email, EmployeeBatchResult.Status.DUPLICATE);
+            } else {
+                indexes.add(i);
+            }
+        }
+
+        Map<String, Long> ids = new HashMap<>();
+        for (EmployeeBatchResult result : employeeService.saveEmployees(indexes.stream().map(employees::get).toList())) {
+            int index = indexes.get(result.index());
+            results[index] = new EmployeeBatchResult(index, result.email(), result.status(), result.id());
+            if (result.status() == EmployeeBatchResult.Status.CREATED) {
+                ids.put(result.email(), result.id());
+            }
+        }
+        emailDirectory.settle(reserved, ids);
+        return List.of(results);
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+
+        List<EmployeeView> employees = new ArrayList<>();
+        scatter(employeeService::getAllEmployees).forEach(employees::addAll);
+        return employees;
+    }
+
+    @Override
+    public List<EmployeeView> getEmployeesAfter( long afterId, int limit ) {
+
+        List<EmployeeView> employees = new ArrayList<>(limit);
+        for (int shard = afterId < 1 ? 0 : shardRouter.shardForId(afterId);
+             shard < shardRouter.shardCount() && employees.size() < limit; shard++) {
+            int remaining = limit - employees.size();
+            employees.addAll(ShardContext.callOn(shard, () -> employeeService.getEmployeesAfter(afterId, remaining)));
+        }
+        return employees;
+    }
+
+    @Override
+    public void streamAllEmployees( Consumer<EmployeeView> action ) {
+        shardRouter.shards().forEach(shard -> ShardContext.runOn(shard, () -> employeeService.streamAllEmployees(action)));
+    }
+
+    // the search index is in memory and fed by the events of every shard
+    @Override
+    public List<EmployeeView> searchEmployees( String query, int limit ) {
+        return employeeService.searchEmployees(query, limit);
+    }
+
+    @Override
+    public Optional<EmployeeView> getEmployeeViewById( long id ) {
+        return onShardOf(id, () -> employeeService.getEmployeeViewById(id));
+    }
+
+    @Override
+    public List<EmployeeLookupResult> getEmployeesByIds( List<Long> ids ) {
+
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        new LinkedHashSet<>(ids).forEach(id -> idsByShard.computeIfAbsent(shardRouter.shardForId(id),
+                shard -> new ArrayList<>()).add(id));
+
+        Map<Long, EmployeeLookupResult> found = new HashMap<>();
+        idsByShard.forEach(( shard, shardIds ) -> ShardContext.callOn(shard,
+                        () -> employeeService.getEmployeesByIds(shardIds))
+                .forEach(result -> found.put(result.id(), result)));
+        return ids.stream()
+                .map(found::get)
+                .toList();
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById( long id ) {
+        return onShardOf(id, () -> employeeService.getEmployeeById(id));
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion( long id ) {
+        return onShardOf(id, () -> employeeService.getEmployeeVersion(id));
+    }
+
+    // moved by the events of every shard, like the search index
+    @Override
+    public EmployeeListVersion getEmployeesVersion() {
+        return employeeService.getEmployeesVersion();
+    }
+
+    @Override
+    public Optional<EmployeeView> updateEmployee( long id, Employee employee ) {
+        return update(id, employee, () -> employeeService.updateEmployee(id, employee));
+    }
+
+    @Override
+    public Optional<EmployeeView> updateEmployee( long id, Employee employee, long expectedVersion ) {
+        return update(id, employee, () -> employeeService.updateEmployee(id, employee, expectedVersion));
+    }
+
+    // the employee keeps its id and shard, a new email is claimed before the row changes and the
+    // old one released once it did
+    private Optional<EmployeeView> update( long id, Employee employee, Supplier<Optional<EmployeeView>> update ) {
+
+        Optional<EmployeeView> current = getEmployeeViewById(id);
+        String email = employee.getEmail();
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        if (email == null || email.equals(current.get().email())) {
+            return onShardOf(id, update);
+        }
+
+        emailDirectory.claim(email, id);
+        Optional<EmployeeView> updated;
+        try {
+            updated = onShardOf(id, update);
+        } catch (RuntimeException e) {
+            emailDirectory.release(email, id);
+            throw e;
+        }
+        emailDirectory.release(updated.isPresent() ? current.get().email() : email, id);
+        return updated;
+    }
+
+    @Override
+    public boolean deleteEmployee( long id ) {
+
+        Optional<EmployeeView> current = getEmployeeViewById(id);
+        boolean deleted = onShardOf(id, () -> employeeService.deleteEmployee(id));
+        if (deleted) {
+            current.ifPresent(view -> emailDirectory.release(view.email(), id));
+        }
+        return deleted;
+    }
+
+    private <T> T onShardOf( long id, Supplier<T> action ) {
+        return ShardContext.callOn(shardRouter.shardForId(id), action);
+    }
+
+    // results in shard order
+    private <T> List<T> scatter( Supplier<T> action ) {
+
+        List<CompletableFuture<T>> futures = shardRouter.shards()
+                .mapToObj(shard -> CompletableFuture.supplyAsync(() -> ShardContext.callOn(shard, action), executor))
+                .toList();
+        return futures.stream()
+                .map(ShardedEmployeeService::join)
+                .toList();
+    }
+
+    // callers see the shard's own exception, as with a single database
+    private static <T> T join( CompletableFuture<T> future ) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
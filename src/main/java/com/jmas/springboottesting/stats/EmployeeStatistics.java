@@ -0,0 +1,226 @@
+package com.jmas.springboottesting.stats;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jmas.springboottesting.dto.EmployeeGroupCount;
+import com.jmas.springboottesting.dto.EmployeeStats;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.service.EmployeeService;
+import com.jmas.springboottesting.shard.EmployeeShardRouter;
+import com.jmas.springboottesting.shard.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Employee counts kept up to date from the committed write events, so reading them costs the number
+ * of groups and not the size of the table. Counters are LongAdders, writers on different threads
+ * do not contend on them. The current group of up to employee.stats.tracked-employees employees is
+ * remembered so an update or delete can move or drop exactly its own count; the groups are shared
+ * instances, an employee only costs a bounded cache entry. The first GROUP BY over the table seeds
+ * the counters, later ones run periodically and correct anything missed, like the group change of
+ * an employee that was no longer tracked. The GROUP BYs are not atomic with the events, a write
+ * committed but not yet counted looks like drift for one run, so only a drift seen the same in two
+ * runs in a row is corrected.
+ */
+@Component
+public class EmployeeStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeStatistics.class);
+
+    private final EmployeeService employeeService;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeShardRouter shardRouter;
+
+    private final LongAdder total = new LongAdder();
+
+    private final ConcurrentHashMap<String, LongAdder> byEmailDomain = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, LongAdder> byLastNameInitial = new ConcurrentHashMap<>();
+
+    private final Cache<Long, Group> groupsById;
+
+    private final ConcurrentHashMap<Group, Group> groups = new ConcurrentHashMap<>();
+
+    private final Counter corrections;
+
+    // a lock rather than synchronized: reconciliations run queries while holding it, and a virtual
+    // thread blocked on JDBC inside a monitor would pin its carrier
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    // drift per counter seen by the last reconciliation, both only touched under its lock
+    private Map<String, Long> previousDrifts = Map.of();
+
+    private boolean seeded;
+
+    public EmployeeStatistics( EmployeeService employeeService, EmployeeRepository employeeRepository,
+                               EmployeeShardRouter shardRouter, MeterRegistry meterRegistry,
+                               @Value("${employee.stats.tracked-employees:100000}") long trackedEmployees ) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.shardRouter = shardRouter;
+        this.groupsById = Caffeine.newBuilder()
+                .maximumSize(trackedEmployees)
+                .build();
+        this.corrections = Counter.builder("employees.stats.corrections")
+                .description("Sum of the adjustments reconciliation made to the employee counters")
+                .register(meterRegistry);
+    }
+
+    public EmployeeStats snapshot() {
+        return new EmployeeStats(total.sum(), counts(byEmailDomain), counts(byLastNameInitial));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent( EmployeeEvent event ) {
+
+        // an untracked employee's old group is unknown, reconciliation moves its count later
+        if (event.type() == EmployeeEvent.Type.DELETED) {
+            Group previous = groupsById.asMap().remove(event.id());
+            if (previous != null) {
+                count(previous, -1);
+            }
+            total.decrement();
+            return;
+        }
+        Group group = group(event.employee());
+        Group previous = groupsById.asMap().put(event.id(), group);
+        if (event.type() == EmployeeEvent.Type.CREATED) {
+            total.increment();
+            count(group, 1);
+        } else if (previous != null) {
+            count(previous, -1);
+            count(group, 1);
+        }
+    }
+
+    // the counters come from the first reconciliation, the groups of existing employees are tracked
+    // until the cache is full
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+
+        reconcile();
+        employeeService.streamAllEmployees(employee -> groupsById.asMap().putIfAbsent(employee.id(), group(employee)));
+        log.info("Employee statistics loaded for {} employees", total.sum());
+    }
+
+    @Scheduled(fixedDelayString = "${employee.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${employee.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+
+        reconcileLock.lock();
+        try {
+            Map<String, Long> domains = new HashMap<>();
+            Map<String, Long> initials = new HashMap<>();
+            shardRouter.shards().forEach(shard -> ShardContext.runOn(shard, () -> {
+                merge(domains, employeeRepository.countByEmailDomain());
+                merge(initials, employeeRepository.countByLastNameInitial());
+            }));
+
+            Map<String, Long> drifts = new HashMap<>();
+            long correction = correct("domain:", byEmailDomain, domains, drifts)
+                    + correct("initial:", byLastNameInitial, initials, drifts)
+                    + correct("total", total, domains.values().stream().mapToLong(Long::longValue).sum(), drifts);
+            // seeding is not drift, only what the events miss afterwards counts as a correction
+            if (!seeded) {
+                seeded = true;
+                previousDrifts = Map.of();
+                return;
+            }
+            previousDrifts = drifts;
+            corrections.increment(correction);
+            if (correction > 0) {
+                log.info("Employee statistics reconciled, counters were off by {}", correction);
+            }
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private Group group( EmployeeView employee ) {
+        String email = employee.email();
+        String lastName = employee.lastName();
+        Group group = new Group(email.substring(email.indexOf('@') + 1).toLowerCase(Locale.ROOT),
+                lastName.isEmpty() ? "" : lastName.substring(0, 1).toUpperCase(Locale.ROOT));
+        return groups.computeIfAbsent(group, Function.identity());
+    }
+
+    private void count( Group group, int delta ) {
+        byEmailDomain.computeIfAbsent(group.emailDomain(), key -> new LongAdder()).add(delta);
+        byLastNameInitial.computeIfAbsent(group.lastNameInitial(), key -> new LongAdder()).add(delta);
+    }
+
+    private static void merge( Map<String, Long> counts, List<EmployeeGroupCount> groupCounts ) {
+        groupCounts.forEach(groupCount -> counts.merge(groupCount.group(), groupCount.count(), Long::sum));
+    }
+
+    // moves the counters still off by the same amount as in the last run, or all of them when seeding,
+    // to the value the table had, returns how far off those were in total
+    private long correct( String prefix, ConcurrentHashMap<String, LongAdder> counters, Map<String, Long> expected,
+                          Map<String, Long> drifts ) {
+
+        long correction = 0;
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            correction += correct(prefix + entry.getKey(),
+                    counters.computeIfAbsent(entry.getKey(), key -> new LongAdder()), entry.getValue(), drifts);
+        }
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            if (!expected.containsKey(entry.getKey())) {
+                correction += correct(prefix + entry.getKey(), entry.getValue(), 0, drifts);
+            }
+        }
+        return correction;
+    }
+
+    private long correct( String key, LongAdder counter, long expected, Map<String, Long> drifts ) {
+
+        long drift = expected - counter.sum();
+        if (drift == 0) {
+            return 0;
+        }
+        drifts.put(key, drift);
+        if (seeded && previousDrifts.getOrDefault(key, 0L) != drift) {
+            return 0;
+        }
+        counter.add(drift);
+        return Math.abs(drift);
+    }
+
+    private static SortedMap<String, Long> counts( Map<String, LongAdder> counters ) {
+        SortedMap<String, Long> counts = new TreeMap<>();
+        counters.forEach(( group, counter ) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                counts.put(group, count);
+            }
+        });
+        return counts;
+    }
+
+    private record Group(String emailDomain, String lastNameInitial) {
+    }
+}
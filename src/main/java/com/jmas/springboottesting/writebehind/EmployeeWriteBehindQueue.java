@@ -0,0 +1,216 @@
+package com.jmas.springboottesting.writebehind;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeWriteStatus;
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Opt-in write-behind for employee creates. Request threads only append to a bounded lock-free
+ * queue and get a tracking id back; a single writer thread drains it into batched
+ * {@link EmployeeService#saveEmployees(List)} calls and records the outcome of every create.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.write-behind.enabled", havingValue = "true")
+public class EmployeeWriteBehindQueue implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeWriteBehindQueue.class);
+
+    // upper bound of the writer's sleep when idle, producers normally wake it up straight away
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final EmployeeService employeeService;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final Queue<PendingCreate> queue = new ConcurrentLinkedQueue<>();
+
+    // ConcurrentLinkedQueue.size() is O(n), the bound is enforced on this counter instead
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Cache<String, EmployeeWriteStatus> statuses;
+
+    // creates are taken before the writer starts, they just wait for it, but not once stop() began
+    private volatile boolean accepting = true;
+
+    private volatile boolean running;
+
+    private volatile boolean idle;
+
+    private volatile Thread writer;
+
+    public EmployeeWriteBehindQueue( EmployeeService employeeService,
+                                     @Value("${employee.write-behind.capacity:10000}") int capacity,
+                                     @Value("${employee.write-behind.batch-size:500}") int batchSize,
+                                     @Value("${employee.write-behind.status-retention:10m}") Duration statusRetention ) {
+        this.employeeService = employeeService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(capacity * 10L)
+                .expireAfterWrite(statusRetention)
+                .build();
+    }
+
+    /**
+     * Queues the create, or returns empty when the queue is full and the caller should back off.
+     */
+    public Optional<EmployeeWriteStatus> submit( Employee employee ) {
+
+        if (!accepting) {
+            return Optional.empty();
+        }
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return Optional.empty();
+            }
+        } while (!size.compareAndSet(current, current + 1));
+
+        String trackingId = UUID.randomUUID().toString();
+        EmployeeWriteStatus status = EmployeeWriteStatus.pending(trackingId, employee.getEmail());
+        statuses.put(trackingId, status);
+        queue.offer(new PendingCreate(trackingId, employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        return Optional.of(status);
+    }
+
+    public Optional<EmployeeWriteStatus> getStatus( String trackingId ) {
+
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    // writes at most one batch, returns how many creates it took off the queue
+    int drain() {
+
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        PendingCreate next;
+        while (batch.size() < batchSize && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        size.addAndGet(-batch.size());
+        write(batch);
+        return batch.size();
+    }
+
+    private void write( List<PendingCreate> batch ) {
+        try {
+            List<EmployeeBatchResult> results = employeeService.saveEmployees(
+                    batch.stream().map(PendingCreate::toEmployee).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                String trackingId = batch.get(i).trackingId();
+                statuses.put(trackingId, EmployeeWriteStatus.of(trackingId, results.get(i)));
+            }
+        } catch (RuntimeException e) {
+            // usually a synchronous create took one of the emails after the batch checked it, retry one by one
+            log.warn("Write-behind batch of {} employees failed, retrying individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+        }
+    }
+
+    private void writeOne( PendingCreate create ) {
+        EmployeeWriteStatus pending = EmployeeWriteStatus.pending(create.trackingId(), create.email());
+        try {
+            Employee savedEmployee = employeeService.saveEmployee(create.toEmployee());
+            statuses.put(create.trackingId(), new EmployeeWriteStatus(create.trackingId(),
+                    EmployeeWriteStatus.State.CREATED, savedEmployee.getEmail(), savedEmployee.getId()));
+        } catch (EmployeeAlreadyExistsException e) {
+            statuses.put(create.trackingId(), pending.with(EmployeeWriteStatus.State.DUPLICATE));
+        } catch (RuntimeException e) {
+            log.error("Write-behind create of {} failed", create.email(), e);
+            statuses.put(create.trackingId(), pending.with(EmployeeWriteStatus.State.FAILED));
+        }
+    }
+
+    private void run() {
+        // keeps draining after stop() until everything accepted so far is written
+        while (running || size.get() > 0) {
+            if (drain() == 0) {
+                idle = true;
+                if (running && queue.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("employee-write-behind").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped after the web server, so no request can still be submitting while the queue drains
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry ) {
+        Gauge.builder("employees.write-behind.queue.size", size, AtomicInteger::get)
+                .description("Employee creates accepted but not written yet")
+                .register(registry);
+    }
+
+    // only the submitted fields are kept, every attempt inserts a fresh entity
+    private record PendingCreate(String trackingId, String firstName, String lastName, String email) {
+
+        Employee toEmployee() {
+            return Employee.builder()
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(email)
+                    .build();
+        }
+    }
+}
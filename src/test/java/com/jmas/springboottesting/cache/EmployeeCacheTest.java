@@ -0,0 +1,145 @@
+package com.jmas.springboottesting.cache;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeCacheTest {
+
+    private final EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1));
+
+    @Test
+    void givenCachedEmployee_whenPutWithNewEmail_thenOnlyTheNewEmailMapsToTheId(){
+
+        //-- Given
+        employeeCache.put(new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L));
+
+        //-- When
+        employeeCache.put(new EmployeeView(1L, "Perico", "Palotes", "perico@mail.com", 1L));
+
+        //-- Then
+        assertThat(employeeCache.getIdIfPresent("perico@palotes.com")).isEmpty();
+        assertThat(employeeCache.getIdIfPresent("perico@mail.com")).contains(1L);
+    }
+
+    @Test
+    void givenCachedEmployee_whenEvict_thenEmployeeAndEmailAreGone(){
+
+        //-- Given
+        employeeCache.put(new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L));
+
+        //-- When
+        employeeCache.evict(1L);
+
+        //-- Then
+        assertThat(employeeCache.getIfPresent(1L)).isEmpty();
+        assertThat(employeeCache.getIdIfPresent("perico@palotes.com")).isEmpty();
+    }
+
+    @Test
+    void givenWriteWhileLoading_whenGetById_thenTheLoadedRowIsNotCached(){
+
+        //-- Given
+        EmployeeView oldRow = new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L);
+
+        //-- When
+        Optional<EmployeeView> loaded = employeeCache.getById(1L, id -> {
+            // an update commits and evicts after the query read the old row
+            employeeCache.evict(id);
+            return Optional.of(oldRow);
+        });
+
+        //-- Then
+        assertThat(loaded).contains(oldRow);
+        assertThat(employeeCache.getIfPresent(1L)).isEmpty();
+    }
+
+    @Test
+    void givenWriteWhileLoading_whenGetAllById_thenOnlyUntouchedRowsAreCached(){
+
+        //-- Given
+        EmployeeView employee1 = new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L);
+        EmployeeView employee2 = new EmployeeView(2L, "Anselm", "Clave", "anselm@clave.com", 0L);
+
+        //-- When
+        Map<Long, EmployeeView> loaded = employeeCache.getAllById(List.of(1L, 2L), ids -> {
+            employeeCache.evict(2L);
+            return List.of(employee1, employee2);
+        });
+
+        //-- Then
+        assertThat(loaded).containsOnlyKeys(1L, 2L);
+        assertThat(employeeCache.getIfPresent(1L)).contains(employee1);
+        assertThat(employeeCache.getIfPresent(2L)).isEmpty();
+    }
+
+    @Test
+    void givenWriteWhilePreloading_whenPreload_thenOnlyUntouchedRowsAreCached(){
+
+        //-- Given
+        EmployeeView employee1 = new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L);
+        EmployeeView employee2 = new EmployeeView(2L, "Anselm", "Clave", "anselm@clave.com", 0L);
+
+        //-- When
+        int preloaded = employeeCache.preload(() -> {
+            employeeCache.evict(2L);
+            return List.of(employee1, employee2);
+        });
+
+        //-- Then
+        assertThat(preloaded).isEqualTo(2);
+        assertThat(employeeCache.getIfPresent(1L)).contains(employee1);
+        assertThat(employeeCache.getIfPresent(2L)).isEmpty();
+        assertThat(employeeCache.getIdIfPresent("anselm@clave.com")).isEmpty();
+    }
+
+    @Test
+    void givenOpenTransaction_whenDeleteEvictsAndReaderRecachesOldRow_thenCommitEvictsItAgain(){
+
+        //-- Given
+        EmployeeView oldRow = new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            employeeCache.evict(1L);
+            employeeCache.getById(1L, id -> Optional.of(oldRow));
+
+            //-- When
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //-- Then
+        assertThat(employeeCache.getIfPresent(1L)).isEmpty();
+    }
+
+    @Test
+    void givenOpenTransaction_whenPut_thenEmployeeIsOnlyCachedOnCommit(){
+
+        //-- Given
+        EmployeeView employee = new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 1L);
+        Optional<EmployeeView> beforeCommit;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+
+            //-- When
+            employeeCache.put(employee);
+            beforeCommit = employeeCache.getIfPresent(1L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //-- Then
+        assertThat(beforeCommit).isEmpty();
+        assertThat(employeeCache.getIfPresent(1L)).contains(employee);
+    }
+}
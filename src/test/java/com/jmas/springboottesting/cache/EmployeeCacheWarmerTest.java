@@ -0,0 +1,75 @@
+package com.jmas.springboottesting.cache;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.availability.ReadinessState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeCacheWarmerTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @TempDir
+    private Path dataDir;
+
+    private final EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1));
+
+    private final List<Object> events = new ArrayList<>();
+
+    @Test
+    void givenHotIdsOfPreviousRun_whenRun_thenThoseEmployeesArePreloaded() throws IOException {
+
+        //-- Given
+        Path hotIdsFile = dataDir.resolve("hot-employee-ids.txt");
+        Files.write(hotIdsFile, List.of("7", "3"));
+        EmployeeView employee7 = new EmployeeView(7L, "Perico", "Palotes", "perico@palotes.com", 0L);
+        EmployeeView employee3 = new EmployeeView(3L, "Anselm", "Clave", "anselm@clave.com", 0L);
+        // the query warm-up runs the same lookup with a dummy id first
+        given(employeeRepository.findViewsByIds(List.of(0L))).willReturn(List.of());
+        given(employeeRepository.findViewsByIds(List.of(7L, 3L))).willReturn(List.of(employee7, employee3));
+        EmployeeCacheWarmer warmer = new EmployeeCacheWarmer(employeeRepository, employeeCache, 10, hotIdsFile.toString(),
+                events::add);
+
+        //-- When
+        warmer.run(new DefaultApplicationArguments());
+
+        //-- Then
+        assertThat(employeeCache.getIfPresent(7L)).contains(employee7);
+        assertThat(employeeCache.getIdIfPresent("anselm@clave.com")).contains(3L);
+        assertThat(events).extracting("state")
+                .containsExactly(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void givenCachedEmployees_whenSaveHotIds_thenIdsAreWrittenForTheNextStart() throws IOException {
+
+        //-- Given
+        Path hotIdsFile = dataDir.resolve("data").resolve("hot-employee-ids.txt");
+        employeeCache.preload(() -> List.of(new EmployeeView(5L, "Perico", "Palotes", "perico@palotes.com", 0L)));
+        EmployeeCacheWarmer warmer = new EmployeeCacheWarmer(employeeRepository, employeeCache, 10, hotIdsFile.toString(),
+                events::add);
+
+        //-- When
+        warmer.saveHotIds();
+
+        //-- Then
+        assertThat(Files.readAllLines(hotIdsFile)).containsExactly("5");
+    }
+}
@@ -0,0 +1,84 @@
+package com.jmas.springboottesting.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void givenConcurrentCallsForSameKey_whenExecute_thenLoaderRunsOnce() throws Exception {
+
+        //-- Given
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        //-- When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(1L, key -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "employee-" + key;
+                })));
+            }
+            // every other caller is waiting on the leader's load before it is let go
+            while (singleFlight.coalesced() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            //-- Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+            }
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void givenCompletedCall_whenExecuteAgain_thenLoaderRunsAgain() {
+
+        //-- Given
+        AtomicInteger loads = new AtomicInteger();
+        singleFlight.execute(1L, key -> "first-" + loads.incrementAndGet());
+
+        //-- When
+        String result = singleFlight.execute(1L, key -> "second-" + loads.incrementAndGet());
+
+        //-- Then
+        assertThat(result).isEqualTo("second-2");
+    }
+
+    @Test
+    void givenFailingLoader_whenExecute_thenFailurePropagatedAndNotKept() {
+
+        //-- When / Then
+        assertThatThrownBy(() -> singleFlight.execute(1L, key -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.execute(1L, key -> "recovered")).isEqualTo("recovered");
+    }
+
+    private static void await( CountDownLatch latch ) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
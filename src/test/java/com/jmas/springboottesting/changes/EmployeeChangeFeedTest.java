@@ -0,0 +1,79 @@
+package com.jmas.springboottesting.changes;
+
+import com.jmas.springboottesting.dto.EmployeeChange;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeChangeFeedTest {
+
+    private EmployeeChangeFeed changeFeed;
+
+    @BeforeEach
+    void setup() {
+        changeFeed = new EmployeeChangeFeed(3, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void cleanup() {
+        changeFeed.shutdown();
+    }
+
+    @Test
+    void givenPublishedChanges_whenChangesAfter_thenMissedChangesInSequenceOrder(){
+
+        //-- Given
+        long lastSeen = changeFeed.lastSequence();
+        changeFeed.onEmployeeEvent(EmployeeEvent.created(new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L)));
+        changeFeed.onEmployeeEvent(EmployeeEvent.deleted(1L));
+
+        //-- When
+        Optional<List<EmployeeChange>> changes = changeFeed.changesAfter(lastSeen);
+
+        //-- Then
+        assertThat(changes).hasValueSatisfying(missed -> {
+            assertThat(missed).extracting(EmployeeChange::sequence).containsExactly(lastSeen + 1, lastSeen + 2);
+            assertThat(missed).extracting(EmployeeChange::type)
+                    .containsExactly(EmployeeEvent.Type.CREATED, EmployeeEvent.Type.DELETED);
+        });
+    }
+
+    @Test
+    void givenOverwrittenChanges_whenChangesAfter_thenResyncIsRequired(){
+
+        //-- Given
+        long lastSeen = changeFeed.lastSequence();
+        for (long id = 1; id <= 4; id++) {
+            changeFeed.onEmployeeEvent(EmployeeEvent.deleted(id));
+        }
+
+        //-- When
+        Optional<List<EmployeeChange>> tooOld = changeFeed.changesAfter(lastSeen);
+        Optional<List<EmployeeChange>> stillBuffered = changeFeed.changesAfter(lastSeen + 1);
+
+        //-- Then
+        assertThat(tooOld).isEmpty();
+        assertThat(stillBuffered).hasValueSatisfying(missed -> assertThat(missed).hasSize(3));
+    }
+
+    @Test
+    void givenIdOfAnotherRun_whenChangesAfter_thenResyncIsRequired(){
+
+        //-- Given
+        long previousRun = changeFeed.lastSequence() - 1_000_000;
+
+        //-- When
+        Optional<List<EmployeeChange>> changes = changeFeed.changesAfter(previousRun);
+
+        //-- Then
+        assertThat(changes).isEmpty();
+    }
+}
@@ -1,25 +1,49 @@
 package com.jmas.springboottesting.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jmas.springboottesting.changes.EmployeeChangeFeed;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeListVersion;
+import com.jmas.springboottesting.dto.EmployeeLookupResult;
+import com.jmas.springboottesting.dto.EmployeeStats;
+import com.jmas.springboottesting.dto.EmployeeView;
 import com.jmas.springboottesting.model.Employee;
 import com.jmas.springboottesting.service.EmployeeService;
+import com.jmas.springboottesting.service.EmployeeTransferService;
+import com.jmas.springboottesting.stats.EmployeeStatistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,6 +57,15 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @MockBean
+    private EmployeeTransferService employeeTransferService;
+
+    @MockBean
+    private EmployeeStatistics employeeStatistics;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -63,13 +96,39 @@ class EmployeeControllerTest {
     }
 
     @Test
-    void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
+    void givenListOfEmployees_whenCreateEmployees_thenReturnPerItemResults() throws Exception {
 
         //-- given
-        List<Employee> lstEmployee = new ArrayList<>();
-        lstEmployee.add(Employee.builder().firstName("Perico").lastName("Palotes").email("perico@mail.com").build());
-        lstEmployee.add(Employee.builder().firstName("Anselm").lastName("Clave").email("anselm@mail.com").build());
-        given(employeeService.getAllEmployees()).willReturn(lstEmployee);
+        List<Employee> lstEmployee = List.of(
+                Employee.builder().firstName("Perico").lastName("Palotes").email("perico@mail.com").build(),
+                Employee.builder().firstName("Anselm").lastName("Clave").email("perico@mail.com").build());
+        given(employeeService.saveEmployees(any()))
+                .willReturn(List.of(
+                        EmployeeBatchResult.created(0, "perico@mail.com", 1L),
+                        EmployeeBatchResult.rejected(1, "perico@mail.com", EmployeeBatchResult.Status.DUPLICATE)));
+
+        //-- when
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lstEmployee)));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(lstEmployee.size())))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE")));
+    }
+
+    @Test
+    void givenListOfEmployees_whenGetAllEmployees_thenReturnFirstPage() throws Exception {
+
+        //-- given
+        List<EmployeeView> lstEmployee = new ArrayList<>();
+        lstEmployee.add(new EmployeeView(1L, "Perico", "Palotes", "perico@mail.com", 0L));
+        lstEmployee.add(new EmployeeView(2L, "Anselm", "Clave", "anselm@mail.com", 0L));
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeeListVersion(7L));
+        given(employeeService.getEmployeesAfter(0L, 100)).willReturn(lstEmployee);
 
         //-- when
         ResultActions response = mockMvc.perform(get("/api/employees"));
@@ -77,22 +136,184 @@ class EmployeeControllerTest {
         //-- then
         response.andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK))
                 .andExpect(jsonPath("$.size()", is(lstEmployee.size())));
+        verify(employeeService, never()).getAllEmployees();
 
     }
 
+    @Test
+    void givenMoreEmployeesThanAPage_whenGetEmployeesWithoutParameters_thenLinkToNextPage() throws Exception {
+
+        //-- given
+        List<EmployeeView> lstEmployee = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> new EmployeeView(id, "Perico", "Palotes", "perico" + id + "@mail.com", 0L))
+                .toList();
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeeListVersion(7L));
+        given(employeeService.getEmployeesAfter(0L, 100)).willReturn(lstEmployee);
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees"));
+
+        //-- then
+        response.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/employees?after=100&limit=100>; rel=\"next\""))
+                .andExpect(jsonPath("$.size()", is(100)));
+    }
 
     @Test
-    void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
+    void givenCurrentListETag_whenGetPageAfter_thenReturnNotModified() throws Exception {
 
         //-- given
-        long employeeId = 1L;
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeeListVersion(7L));
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "100")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"7\""));
+
+        //-- then
+        response.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+        verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void givenSmileAccepted_whenGetAllEmployees_thenReturnSmileEncodedList() throws Exception {
+
+        //-- given
+        List<EmployeeView> lstEmployee = List.of(
+                new EmployeeView(1L, "Perico", "Palotes", "perico@mail.com", 0L),
+                new EmployeeView(2L, "Anselm", "Clave", "anselm@mail.com", 0L));
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeeListVersion(7L));
+        given(employeeService.getEmployeesAfter(0L, 100)).willReturn(lstEmployee);
+
+        //-- when
+        MvcResult result = mockMvc.perform(get("/api/employees")
+                        .accept(EmployeeController.APPLICATION_SMILE_VALUE))
+                .andReturn();
+
+        //-- then
+        assertThat(result.getResponse().getContentType()).isEqualTo(EmployeeController.APPLICATION_SMILE_VALUE);
+        List<EmployeeView> decoded = new ObjectMapper(new SmileFactory()).readValue(
+                result.getResponse().getContentAsByteArray(), new TypeReference<>() {});
+        assertThat(decoded).isEqualTo(lstEmployee);
+    }
+
+    @Test
+    void givenCborEncodedEmployee_whenCreateEmployee_thenReturnCborEncodedEmployee() throws Exception {
+
+        //-- given
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
         Employee employee = Employee.builder()
                 .firstName("Perico")
                 .lastName("Palotes")
                 .email("perico@mail.com")
                 .build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        //-- when
+        MvcResult result = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(employee)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        //-- then
+        Employee savedEmployee = cborMapper.readValue(result.getResponse().getContentAsByteArray(), Employee.class);
+        assertThat(savedEmployee.getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenLastSeenId_whenGetEmployeesPage_thenReturnNextPage() throws Exception {
+
+        //-- given
+        List<EmployeeView> lstEmployee = List.of(new EmployeeView(3L, "Anselm", "Clave", "anselm@mail.com", 0L));
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeeListVersion(7L));
+        given(employeeService.getEmployeesAfter(eq(2L), anyInt())).willReturn(lstEmployee);
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "2")
+                .param("limit", "1"));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/employees?after=3&limit=1>; rel=\"next\""))
+                .andExpect(jsonPath("$.size()", is(lstEmployee.size())))
+                .andExpect(jsonPath("$[0].id", is(3)));
+    }
+
+    @Test
+    void givenLastSeenIdOnly_whenGetEmployeesPage_thenReturnDefaultSizedPage() throws Exception {
+
+        //-- given
+        List<EmployeeView> lstEmployee = List.of(new EmployeeView(3L, "Anselm", "Clave", "anselm@mail.com", 0L));
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeeListVersion(7L));
+        given(employeeService.getEmployeesAfter(2L, 100)).willReturn(lstEmployee);
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "2"));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(lstEmployee.size())));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @Test
+    void givenQuery_whenSearchEmployees_thenReturnMatches() throws Exception {
+
+        //-- given
+        List<EmployeeView> lstEmployee = List.of(new EmployeeView(1L, "Perico", "Palotes", "perico@mail.com", 0L));
+        given(employeeService.searchEmployees("per", 5)).willReturn(lstEmployee);
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "per")
+                .param("limit", "5"));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(lstEmployee.size())))
+                .andExpect(jsonPath("$[0].email", is("perico@mail.com")));
+    }
+
+    @Test
+    void givenEmployeeIds_whenGetEmployeesByIds_thenReturnResultsInRequestOrder() throws Exception {
+
+        //-- given
+        EmployeeView employee = new EmployeeView(2L, "Perico", "Palotes", "perico@mail.com", 0L);
+        given(employeeService.getEmployeesByIds(List.of(2L, 7L)))
+                .willReturn(List.of(EmployeeLookupResult.found(employee), EmployeeLookupResult.missing(7L)));
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "2,7"));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found", is(true)))
+                .andExpect(jsonPath("$[0].employee.email", is("perico@mail.com")))
+                .andExpect(jsonPath("$[1].id", is(7)))
+                .andExpect(jsonPath("$[1].found", is(false)));
+    }
+
+    @Test
+    void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
+
+        //-- given
+        long employeeId = 1L;
+        EmployeeView employee = new EmployeeView(employeeId, "Perico", "Palotes", "perico@mail.com", 0L);
+        given(employeeService.getEmployeeViewById(employeeId)).willReturn(Optional.of(employee));
 
         //-- when
         ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
@@ -100,9 +321,50 @@ class EmployeeControllerTest {
         //-- then
         response.andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
-                .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
-                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+                .andExpect(jsonPath("$.firstName", is(employee.firstName())))
+                .andExpect(jsonPath("$.lastName", is(employee.lastName())))
+                .andExpect(jsonPath("$.email", is(employee.email())));
+    }
+
+    @Test
+    void givenMatchingETag_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+
+        //-- given
+        long employeeId = 1L;
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isNotModified());
+        verify(employeeService, never()).getEmployeeViewById(employeeId);
+    }
+
+    @Test
+    void givenStaleETag_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+
+        //-- given
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Anselm")
+                .lastName("Clave")
+                .email("anselm@mail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(3L)))
+                .willThrow(new OptimisticLockingFailureException("stale"));
+
+        //-- when
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
@@ -110,7 +372,7 @@ class EmployeeControllerTest {
 
         //-- given
         long employeeId = 1L;
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
+        given(employeeService.getEmployeeViewById(employeeId)).willReturn(Optional.empty());
 
         //-- when
         ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
@@ -125,20 +387,17 @@ class EmployeeControllerTest {
 
         //-- given
         long employeeId = 1L;
-        Employee savedEmployee = Employee.builder()
-                .firstName("Perico")
-                .lastName("Palotes")
-                .email("perico@mail.com")
-                .build();
-
         Employee updatedEmployee = Employee.builder()
                 .firstName("Anselm")
                 .lastName("Clave")
                 .email("anselm@mail.com")
                 .build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation)-> invocation.getArgument(0));
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class)))
+                .willAnswer((invocation)-> {
+                    Employee employee = invocation.getArgument(1);
+                    return Optional.of(new EmployeeView(employeeId, employee.getFirstName(), employee.getLastName(),
+                            employee.getEmail(), 1L));
+                });
 
         //-- when
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -148,10 +407,81 @@ class EmployeeControllerTest {
         //-- then
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
                 .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void givenMissingEmployee_whenUpdateEmployee_thenReturnNotFound() throws Exception {
+
+        //-- given
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Anselm")
+                .lastName("Clave")
+                .email("anselm@mail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class))).willReturn(Optional.empty());
+
+        //-- when
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
+    @Test
+    void givenEmployeeId_whenDeleteEmployee_thenNoContent() throws Exception {
+
+        //-- given
+        given(employeeService.deleteEmployee(1L)).willReturn(true);
+
+        //-- when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void givenMissingEmployeeId_whenDeleteEmployee_thenNotFound() throws Exception {
+
+        //-- given
+        given(employeeService.deleteEmployee(1L)).willReturn(false);
+
+        //-- when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void givenStatistics_whenGetStats_thenReturnCountsWithoutQueryingEmployees() throws Exception {
+
+        //-- given
+        given(employeeStatistics.snapshot()).willReturn(new EmployeeStats(3L,
+                new TreeMap<>(Map.of("mail.com", 2L, "other.org", 1L)),
+                new TreeMap<>(Map.of("C", 1L, "P", 2L))));
+
+        //-- when
+        ResultActions response = mockMvc.perform(get("/api/employees/stats"));
+
+        //-- then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.byEmailDomain['mail.com']", is(2)))
+                .andExpect(jsonPath("$.byLastNameInitial.P", is(2)));
+        verify(employeeService, never()).getAllEmployees();
+    }
+}
@@ -0,0 +1,88 @@
+package com.jmas.springboottesting.controller;
+
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+
+@ActiveProfiles("reactive")
+@WebFluxTest(ReactiveEmployeeController.class)
+class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+    @Test
+    void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+
+        //-- given
+        Employee employee = Employee.builder()
+                .firstName("Perico")
+                .lastName("Palotes")
+                .email("perico@mail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> Mono.just(invocation.getArgument(0)));
+
+        //-- when
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        //-- then
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+                .jsonPath("$.lastName").isEqualTo(employee.getLastName())
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenListOfEmployees_whenGetAllEmployees_thenStreamEmployees() {
+
+        //-- given
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(
+                Employee.builder().firstName("Perico").lastName("Palotes").email("perico@mail.com").build(),
+                Employee.builder().firstName("Anselm").lastName("Clave").email("anselm@mail.com").build()));
+
+        //-- when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        //-- then
+        response.expectStatus().isOk()
+                .expectBodyList(Employee.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty() {
+
+        //-- given
+        long employeeId = 1L;
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Mono.empty());
+
+        //-- when
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", employeeId)
+                .exchange();
+
+        //-- then
+        response.expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,58 @@
+package com.jmas.springboottesting.health;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolHealthIndicatorTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ConnectionPoolHealthIndicator healthIndicator;
+
+    private Timer acquire;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        healthIndicator = new ConnectionPoolHealthIndicator(meterRegistry, Duration.ofMillis(100));
+        acquire = meterRegistry.timer("hikaricp.connections.acquire", "pool", "employees");
+        meterRegistry.gauge("hikaricp.connections.pending", Tags.of("pool", "employees"), 3);
+    }
+
+    @Test
+    void givenFastAcquires_whenHealth_thenUp(){
+
+        //-- Given
+        acquire.record(Duration.ofMillis(2));
+
+        //-- When
+        Health health = healthIndicator.health();
+
+        //-- Then
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsKey("employees");
+    }
+
+    @Test
+    void givenSlowAcquire_whenHealth_thenDegraded(){
+
+        //-- Given
+        acquire.record(Duration.ofMillis(500));
+
+        //-- When
+        Health health = healthIndicator.health();
+
+        //-- Then
+        assertThat(health.getStatus()).isEqualTo(ConnectionPoolHealthIndicator.DEGRADED);
+    }
+}
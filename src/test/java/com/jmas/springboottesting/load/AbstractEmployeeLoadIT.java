@@ -0,0 +1,152 @@
+package com.jmas.springboottesting.load;
+
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires {@code load.concurrency} (5000 by default) concurrent connections at {@code GET /api/employees/{id}}
+ * and at the keyset page, and logs throughput and latency percentiles, so the subclasses can be
+ * compared side by side. The employee cache is switched off and every client of a round asks for
+ * its own employee, so each request goes to the database through the pool.
+ * Not part of the regular test run, execute it explicitly with
+ * {@code ./mvnw test -Dtest='*LoadIT' -Dspring.jpa.show-sql=false}.
+ */
+// a zero time-to-live expires every cached employee as soon as it is written
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "employee.cache.time-to-live=0s")
+abstract class AbstractEmployeeLoadIT {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractEmployeeLoadIT.class);
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 5_000);
+
+    private static final int ROUNDS = Integer.getInteger("load.rounds", 5);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private List<Employee> employees;
+
+    // one employee per concurrent client, so concurrent misses never share a query either
+    @BeforeEach
+    void setup() {
+        employees = employeeRepository.saveAll(IntStream.range(0, CONCURRENCY)
+                .mapToObj(i -> Employee.builder()
+                        .firstName("Perico" + i)
+                        .lastName("Palotes" + i)
+                        .email("perico" + i + "@palotes.com")
+                        .build())
+                .toList());
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenConcurrentClients_whenGetEmployeeById_thenReportThroughput() throws Exception {
+
+        //-- Given
+        IntFunction<URI> uris = client -> URI.create("http://localhost:" + port + "/api/employees/" +
+                employees.get(client).getId());
+
+        //-- When
+        int failures = measure("GET /api/employees/{id}", uris);
+
+        //-- Then
+        assertThat(failures).isZero();
+    }
+
+    @Test
+    void givenConcurrentClients_whenGetEmployeesPage_thenReportThroughput() throws Exception {
+
+        //-- Given
+        URI uri = URI.create("http://localhost:" + port + "/api/employees?after=0&limit=10");
+
+        //-- When
+        int failures = measure("GET /api/employees?limit", client -> uri);
+
+        //-- Then
+        assertThat(failures).isZero();
+    }
+
+    // logs throughput and latency percentiles, returns the number of failed requests
+    private int measure( String endpoint, IntFunction<URI> uris ) throws Exception {
+
+        long[] latencies = new long[CONCURRENCY * ROUNDS];
+        int failures = 0;
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder().executor(clients).build()) {
+            for (int round = 0; round < ROUNDS; round++) {
+                List<Future<Long>> futures = new ArrayList<>(CONCURRENCY);
+                for (int i = 0; i < CONCURRENCY; i++) {
+                    URI uri = uris.apply(i);
+                    futures.add(clients.submit(() -> get(httpClient, uri)));
+                }
+                for (int i = 0; i < CONCURRENCY; i++) {
+                    long latency = futures.get(i).get();
+                    if (latency < 0) {
+                        failures++;
+                    }
+                    latencies[round * CONCURRENCY + i] = Math.abs(latency);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        log.info("{} {}: {} req/s, p50 {} ms, p99 {} ms, {} failures",
+                getClass().getSimpleName(), endpoint,
+                String.format("%.0f", latencies.length / (elapsed / (double) TimeUnit.SECONDS.toNanos(1))),
+                String.format("%.1f", percentile(latencies, 0.50)),
+                String.format("%.1f", percentile(latencies, 0.99)), failures);
+        return failures;
+    }
+
+    // latency in nanos, negated when the request failed
+    private static long get( HttpClient httpClient, URI uri ) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - start;
+            return response.statusCode() == 200 ? latency : -latency;
+        } catch (Exception e) {
+            return -(System.nanoTime() - start);
+        }
+    }
+
+    private static double percentile( long[] sortedLatencies, double percentile ) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,4 @@
+package com.jmas.springboottesting.load;
+
+class PlatformThreadsLoadIT extends AbstractEmployeeLoadIT {
+}
@@ -0,0 +1,8 @@
+package com.jmas.springboottesting.load;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// compare against PlatformThreadsLoadIT, which runs on the default pool and JPA settings
+@ActiveProfiles("prod")
+class ProductionProfileLoadIT extends AbstractEmployeeLoadIT {
+}
@@ -0,0 +1,7 @@
+package com.jmas.springboottesting.load;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("virtual")
+class VirtualThreadsLoadIT extends AbstractEmployeeLoadIT {
+}
@@ -0,0 +1,63 @@
+package com.jmas.springboottesting.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementCounterTest {
+
+    private final SqlStatementCounter sqlStatementCounter = new SqlStatementCounter();
+
+    @AfterEach
+    void cleanup() {
+        SqlStatementCounter.end();
+    }
+
+    @Test
+    void givenRepeatedStatement_whenInspect_thenCountedAndFlaggedAboveTheThreshold(){
+
+        //-- Given
+        SqlStatementCounter.Statements statements = SqlStatementCounter.begin();
+
+        //-- When
+        sqlStatementCounter.inspect("select e from employees e where e.email=?");
+        sqlStatementCounter.inspect("insert into employees values (?,?,?,?)");
+        sqlStatementCounter.inspect("select e from employees e where e.email=?");
+
+        //-- Then
+        assertThat(statements.total()).isEqualTo(3);
+        assertThat(statements.repeated(1)).containsExactly("select e from employees e where e.email=?");
+        assertThat(statements.repeated(2)).isEmpty();
+    }
+
+    @Test
+    void givenBatchedInsertsAndSequenceCalls_whenInspect_thenNotFlagged(){
+
+        //-- Given
+        SqlStatementCounter.Statements statements = SqlStatementCounter.begin();
+
+        //-- When
+        for (int i = 0; i < 3; i++) {
+            sqlStatementCounter.inspect("select next value for employees_seq");
+            sqlStatementCounter.inspect("insert into employees (email,first_name,last_name,version,id) values (?,?,?,?,?)");
+        }
+
+        //-- Then
+        assertThat(statements.total()).isEqualTo(6);
+        assertThat(statements.repeated(1)).isEmpty();
+    }
+
+    @Test
+    void givenNoRequestInProgress_whenInspect_thenStatementIsReturnedUnchanged(){
+
+        //-- Given
+        String sql = "select 1";
+
+        //-- When
+        String inspected = sqlStatementCounter.inspect(sql);
+
+        //-- Then
+        assertThat(inspected).isEqualTo(sql);
+    }
+}
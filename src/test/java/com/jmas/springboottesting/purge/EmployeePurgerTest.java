@@ -0,0 +1,56 @@
+package com.jmas.springboottesting.purge;
+
+import com.jmas.springboottesting.config.RepositoryConfig;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.shard.EmployeeShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(RepositoryConfig.class)
+class EmployeePurgerTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void givenSoftDeletedEmployees_whenPurge_thenOnlyTombstonesRemovedInBatches(){
+
+        //-- Given
+        IntStream.range(0, 5).forEach(i -> employeeRepository.save(Employee.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email("employee" + i + "@mail.com")
+                .build()));
+        employeeRepository.flush();
+        employeeRepository.findAll().stream()
+                .limit(3)
+                .forEach(employee -> employeeRepository.softDeleteById(employee.getId()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EmployeePurger purger = new EmployeePurger(jdbcTemplate, transactionManager,
+                new EmployeeShardRouter(1, 1_000_000_000_000L), meterRegistry, 2, 10);
+
+        //-- When
+        purger.purge();
+
+        //-- Then
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employees", Long.class)).isEqualTo(2L);
+        assertThat(meterRegistry.counter("employees.purged").count()).isEqualTo(3.0);
+    }
+}
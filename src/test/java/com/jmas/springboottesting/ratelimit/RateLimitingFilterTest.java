@@ -0,0 +1,102 @@
+package com.jmas.springboottesting.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitingFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private RateLimitingFilter filter;
+
+    @BeforeEach
+    void setup() {
+        // 2 requests per second, bursts of 2, the mock requests come from the trusted proxy
+        filter = new RateLimitingFilter(new SimpleMeterRegistry(), 2, 2, "X-Client-Id", Set.of("127.0.0.1"), 100,
+                clock::get);
+    }
+
+    @Test
+    void givenBurstUsedUp_whenRequest_thenTooManyRequests() throws Exception {
+
+        //-- Given
+        assertThat(call("alice").getStatus()).isEqualTo(200);
+        assertThat(call("alice").getStatus()).isEqualTo(200);
+
+        //-- When
+        MockHttpServletResponse response = call("alice");
+
+        //-- Then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void givenOtherClientOverLimit_whenRequest_thenNotLimited() throws Exception {
+
+        //-- Given
+        call("alice");
+        call("alice");
+        call("alice");
+
+        //-- When
+        MockHttpServletResponse response = call("bob");
+
+        //-- Then
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void givenTokensRefilled_whenRequest_thenAllowed() throws Exception {
+
+        //-- Given
+        call("alice");
+        call("alice");
+        assertThat(call("alice").getStatus()).isEqualTo(429);
+
+        //-- When
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        MockHttpServletResponse response = call("alice");
+
+        //-- Then
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void givenUntrustedAddressOverLimit_whenRequestWithNewClientHeader_thenTooManyRequests() throws Exception {
+
+        //-- Given
+        call("alice", "10.0.0.7");
+        call("bob", "10.0.0.7");
+
+        //-- When
+        MockHttpServletResponse response = call("carol", "10.0.0.7");
+
+        //-- Then
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    private MockHttpServletResponse call( String client ) throws Exception {
+        return call(client, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse call( String client, String remoteAddress ) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/1");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader("X-Client-Id", client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
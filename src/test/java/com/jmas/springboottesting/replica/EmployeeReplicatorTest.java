@@ -0,0 +1,107 @@
+package com.jmas.springboottesting.replica;
+
+import com.jmas.springboottesting.cache.EmployeeCache;
+import com.jmas.springboottesting.cache.SecondLevelCacheEvictor;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmployeeReplicatorTest {
+
+    private final EmployeeCache employeeCache = mock(EmployeeCache.class);
+
+    private final SecondLevelCacheEvictor secondLevelCacheEvictor = mock(SecondLevelCacheEvictor.class);
+
+    private final ReplicaStatus replicaStatus = new ReplicaStatus();
+
+    private JdbcTemplate replica;
+
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void setup(){
+        replica = employeesTable("jdbc:h2:mem:replicator-test;DB_CLOSE_DELAY=-1");
+        primary = employeesTable("jdbc:h2:mem:replicator-primary-test;DB_CLOSE_DELAY=-1");
+    }
+
+    private static JdbcTemplate employeesTable( String url ) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbcTemplate.execute("drop table if exists employees");
+        jdbcTemplate.execute("create table employees (id bigint primary key, first_name varchar(255) not null, " +
+                "last_name varchar(255) not null, email varchar(255) not null unique, version bigint not null, " +
+                "deleted boolean default false not null)");
+        return jdbcTemplate;
+    }
+
+    @Test
+    void givenDeleteBeforeALateUpdate_whenApplied_thenTheEmployeeStaysDeleted() throws InterruptedException {
+
+        //-- Given
+        EmployeeReplicator replicator = new EmployeeReplicator(replica, primary, replicaStatus, employeeCache,
+                secondLevelCacheEvictor, Duration.ZERO);
+        EmployeeView created = new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L);
+        EmployeeView updated = new EmployeeView(1L, "Perico", "Palotes", "perico@mail.com", 1L);
+
+        //-- When
+        replicator.onEmployeeEvent(EmployeeEvent.created(created));
+        replicator.onEmployeeEvent(EmployeeEvent.deleted(1L));
+        replicator.onEmployeeEvent(EmployeeEvent.updated(updated));
+        replicator.shutdown();
+
+        //-- Then
+        assertThat(replica.queryForObject("select deleted from employees where id = 1", Boolean.class)).isTrue();
+        verify(secondLevelCacheEvictor, times(3)).evictEmployee(1L);
+    }
+
+    @Test
+    void givenDeleteBeforeTheCreate_whenApplied_thenTheCreateIsNotReplayed() throws InterruptedException {
+
+        //-- Given
+        EmployeeReplicator replicator = new EmployeeReplicator(replica, primary, replicaStatus, employeeCache,
+                secondLevelCacheEvictor, Duration.ZERO);
+
+        //-- When
+        replicator.onEmployeeEvent(EmployeeEvent.deleted(2L));
+        replicator.onEmployeeEvent(EmployeeEvent.created(new EmployeeView(2L, "Anselm", "Clave", "anselm@clave.com", 0L)));
+        replicator.shutdown();
+
+        //-- Then
+        assertThat(replica.queryForList("select email from employees where deleted = false", String.class)).isEmpty();
+        verify(employeeCache, times(2)).evict(2L);
+    }
+
+    @Test
+    void givenChangeTheReplicaKeepsRejecting_whenApplied_thenTheReplicaIsResynchronisedFromThePrimary() throws InterruptedException {
+
+        //-- Given
+        EmployeeReplicator replicator = new EmployeeReplicator(replica, primary, replicaStatus, employeeCache,
+                secondLevelCacheEvictor, Duration.ZERO);
+        primary.update("insert into employees (id, first_name, last_name, email, version) values (1, 'Perico', 'Palotes', 'perico@palotes.com', 0)");
+        // a row the replica should not have, it holds the email the change needs
+        replica.update("insert into employees (id, first_name, last_name, email, version) values (9, 'Stray', 'Row', 'perico@palotes.com', 0)");
+
+        //-- When
+        replicator.onEmployeeEvent(EmployeeEvent.created(new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L)));
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!replica.queryForList("select id from employees", Long.class).equals(List.of(1L)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        replicator.shutdown();
+
+        //-- Then
+        assertThat(replica.queryForList("select id from employees", Long.class)).containsExactly(1L);
+        assertThat(replicaStatus.isInSync()).isTrue();
+        verify(employeeCache).evict(1L);
+    }
+}
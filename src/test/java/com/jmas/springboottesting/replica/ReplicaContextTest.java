@@ -0,0 +1,58 @@
+package com.jmas.springboottesting.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaContextTest {
+
+    @AfterEach
+    void cleanup() {
+        ReplicaContext.clear();
+    }
+
+    @Test
+    void givenWriteOutsideOfARequest_whenTransactionCompletes_thenReadsMayUseTheReplicaAgain(){
+
+        //-- Given
+        boolean prefersPrimaryInTransaction;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ReplicaContext.markWrite();
+            prefersPrimaryInTransaction = ReplicaContext.prefersPrimary();
+
+            //-- When
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //-- Then
+        assertThat(prefersPrimaryInTransaction).isTrue();
+        assertThat(ReplicaContext.prefersPrimary()).isFalse();
+    }
+
+    @Test
+    void givenWriteInARequest_whenTransactionCompletes_thenTheRestOfTheRequestStaysOnThePrimary(){
+
+        //-- Given
+        ReplicaContext.beginRequest();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ReplicaContext.markWrite();
+
+            //-- When
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //-- Then
+        assertThat(ReplicaContext.prefersPrimary()).isTrue();
+    }
+}
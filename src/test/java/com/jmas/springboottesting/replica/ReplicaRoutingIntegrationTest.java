@@ -0,0 +1,141 @@
+package com.jmas.springboottesting.replica;
+
+import com.jmas.springboottesting.cache.EmployeeCache;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the replica trails the primary by a full second, long enough to tell the two apart
+@SpringBootTest(properties = "employee.replica.apply-delay=1s")
+@ActiveProfiles("replica")
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReplicaStatus replicaStatus;
+
+    @AfterEach
+    void cleanup() {
+        replicaStatus.markInSync();
+        ReplicaContext.clear();
+        // deletes bypass the service, so they are not replicated and each side is cleared on its own
+        employeeRepository.deleteAllInBatch();
+        ReplicaContext.runOnReplica(employeeRepository::deleteAllInBatch);
+    }
+
+    @Test
+    void givenWriteInAnotherRequest_whenGetAllEmployees_thenReadFromReplicaOnceReplicated() throws InterruptedException {
+
+        //-- Given
+        employeeService.saveEmployee(employee("perico@palotes.com"));
+        ReplicaContext.clear();
+        double replicaReads = routing("replica", "read");
+
+        //-- When
+        List<EmployeeView> beforeReplication = employeeService.getAllEmployees();
+        List<EmployeeView> afterReplication = awaitReplica("perico@palotes.com", Duration.ofSeconds(10));
+
+        //-- Then
+        assertThat(beforeReplication).extracting(EmployeeView::email).doesNotContain("perico@palotes.com");
+        assertThat(afterReplication).extracting(EmployeeView::email).contains("perico@palotes.com");
+        assertThat(routing("replica", "read")).isGreaterThan(replicaReads);
+    }
+
+    @Test
+    void givenWriteInSameRequest_whenGetAllEmployees_thenReadYourWriteFromPrimary(){
+
+        //-- Given
+        ReplicaContext.beginRequest();
+        employeeService.saveEmployee(employee("anselm@clave.com"));
+        double stickyReads = routing("primary", "sticky-read");
+
+        //-- When
+        List<EmployeeView> employees = employeeService.getAllEmployees();
+
+        //-- Then
+        assertThat(employees).extracting(EmployeeView::email).contains("anselm@clave.com");
+        assertThat(routing("primary", "sticky-read")).isGreaterThan(stickyReads);
+    }
+
+    @Test
+    void givenCacheMiss_whenGetEmployeeViewById_thenReadFromReplica(){
+
+        //-- Given
+        long id = employeeService.saveEmployee(employee("juan@perez.com")).getId();
+        ReplicaContext.clear();
+        employeeCache.evict(id);
+        double replicaReads = routing("replica", "read");
+
+        //-- When
+        Optional<EmployeeView> employee = employeeService.getEmployeeViewById(id);
+
+        //-- Then
+        assertThat(employee).isEmpty();
+        assertThat(routing("replica", "read")).isGreaterThan(replicaReads);
+    }
+
+    @Test
+    void givenReplicaOutOfSync_whenGetAllEmployees_thenReadFromPrimary(){
+
+        //-- Given
+        employeeService.saveEmployee(employee("ada@lovelace.com"));
+        ReplicaContext.clear();
+        replicaStatus.markOutOfSync();
+        double outOfSyncReads = routing("primary", "replica-out-of-sync");
+
+        //-- When
+        List<EmployeeView> employees = employeeService.getAllEmployees();
+
+        //-- Then
+        assertThat(employees).extracting(EmployeeView::email).contains("ada@lovelace.com");
+        assertThat(routing("primary", "replica-out-of-sync")).isGreaterThan(outOfSyncReads);
+        assertThat(replicaStatus.health().getStatus()).isEqualTo(ReplicaStatus.DEGRADED);
+    }
+
+    private List<EmployeeView> awaitReplica( String email, Duration timeout ) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<EmployeeView> employees = employeeService.getAllEmployees();
+        while (employees.stream().noneMatch(employee -> employee.email().equals(email)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            employees = employeeService.getAllEmployees();
+        }
+        return employees;
+    }
+
+    private double routing( String target, String reason ) {
+        return meterRegistry.get("employees.datasource.routing").tag("target", target).tag("reason", reason)
+                .counter().count();
+    }
+
+    private static Employee employee( String email ) {
+        return Employee.builder()
+                .firstName("Perico")
+                .lastName("Palotes")
+                .email(email)
+                .build();
+    }
+}
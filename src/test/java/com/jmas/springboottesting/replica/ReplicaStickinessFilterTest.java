@@ -0,0 +1,41 @@
+package com.jmas.springboottesting.replica;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaStickinessFilterTest {
+
+    private final ReplicaStickinessFilter filter = new ReplicaStickinessFilter(Duration.ofSeconds(5), "X-Client-Id", 100);
+
+    @Test
+    void givenClientWroteInPreviousRequest_whenNextRequest_thenPrefersPrimary() throws Exception {
+
+        //-- Given
+        filter.doFilter(request("alice"), new MockHttpServletResponse(), ( request, response ) -> ReplicaContext.markWrite());
+        AtomicBoolean alicePrefersPrimary = new AtomicBoolean();
+        AtomicBoolean bobPrefersPrimary = new AtomicBoolean();
+
+        //-- When
+        filter.doFilter(request("alice"), new MockHttpServletResponse(),
+                ( request, response ) -> alicePrefersPrimary.set(ReplicaContext.prefersPrimary()));
+        filter.doFilter(request("bob"), new MockHttpServletResponse(),
+                ( request, response ) -> bobPrefersPrimary.set(ReplicaContext.prefersPrimary()));
+
+        //-- Then
+        assertThat(alicePrefersPrimary).isTrue();
+        assertThat(bobPrefersPrimary).isFalse();
+        assertThat(ReplicaContext.prefersPrimary()).isFalse();
+    }
+
+    private static MockHttpServletRequest request( String client ) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jmas.springboottesting.repository;
+
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.EmployeeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeQueryCacheIntegrationTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Perico")
+                .lastName("Palotes")
+                .email("perico@palotes.com")
+                .build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenRepeatedNameLookups_whenFindByJPQLAndNativeSQL_thenOnlyTheFirstOnesHitTheDatabase(){
+
+        //-- Given
+        employeeRepository.findByJPQL("Perico", "Palotes");
+        employeeRepository.findByNativeSQLNamed("Perico", "Palotes");
+        statistics.clear();
+
+        //-- When
+        Employee byJPQL = employeeRepository.findByJPQL("Perico", "Palotes");
+        Employee byNativeSQL = employeeRepository.findByNativeSQLNamed("Perico", "Palotes");
+
+        //-- Then
+        assertThat(byJPQL.getId()).isEqualTo(employee.getId());
+        assertThat(byNativeSQL.getId()).isEqualTo(employee.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void givenCachedLookup_whenUpdateEmployee_thenLookupReadsTheNewRow(){
+
+        //-- Given
+        employeeRepository.findByJPQLNamedParams("Perico", "Palotes");
+        employeeRepository.findById(employee.getId());
+
+        //-- When
+        employeeService.updateEmployee(employee.getId(), Employee.builder()
+                .firstName("Anselm")
+                .lastName("Clave")
+                .email("anselm@clave.com")
+                .build());
+
+        //-- Then
+        assertThat(employeeRepository.findByJPQLNamedParams("Perico", "Palotes")).isNull();
+        assertThat(employeeRepository.findByJPQLNamedParams("Anselm", "Clave")).isNotNull();
+        assertThat(employeeRepository.findById(employee.getId()))
+                .hasValueSatisfying(updated -> assertThat(updated.getFirstName()).isEqualTo("Anselm"));
+    }
+}
@@ -1,11 +1,14 @@
 package com.jmas.springboottesting.repository;
 
+import com.jmas.springboottesting.config.RepositoryConfig;
 import com.jmas.springboottesting.model.Employee;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +16,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.*;
 
 @DataJpaTest
+@Import(RepositoryConfig.class)
 class EmployeeRepositoryTest {
 
     @Autowired
@@ -63,6 +67,32 @@ class EmployeeRepositoryTest {
             .hasSize(2);
     }
 
+    @Test
+    void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextPage(){
+
+        //-- Given
+        Employee employee1 = Employee.builder()
+                .firstName("Anselm")
+                .lastName("Clave")
+                .email("anselm@clave.com")
+                .build();
+        Employee employee2 = Employee.builder()
+                .firstName("Pablo")
+                .lastName("Picapiedra")
+                .email("pablo@picapiedra.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+
+        //-- When
+        List<Employee> employeeList = employeeRepository.findByIdGreaterThanOrderByIdAsc(employee.getId(), PageRequest.ofSize(1));
+
+        //-- Then
+        assertThat(employeeList).hasSize(1);
+        assertThat(employeeList.get(0).getId()).isEqualTo(employee1.getId());
+    }
+
     @DisplayName("JUnit test for get employee by id operation")
     @Test
     void givenEmployee_whenFindById_thenReturnEmployeeObject(){
@@ -178,4 +208,77 @@ class EmployeeRepositoryTest {
         //-- Then
         assertThat(employeeDB).isNotNull();
     }
+
+    @Test
+    void givenEmployeeObject_whenUpdateById_thenReturnNewVersionInOneStatement(){
+
+        //-- Given
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+
+        //-- When
+        Optional<Long> version = employeeRepository.updateById(savedEmployee.getId(), "Anselm", "Clave", "anselm@clave.com");
+        Optional<Long> missing = employeeRepository.updateById(savedEmployee.getId() + 1, "Pablo", "Picapiedra", "pablo@email.com");
+
+        //-- Then
+        assertThat(version).contains(savedEmployee.getVersion() + 1);
+        assertThat(missing).isEmpty();
+        assertThat(employeeRepository.findViewById(savedEmployee.getId()))
+                .hasValueSatisfying(view -> assertThat(view.email()).isEqualTo("anselm@clave.com"));
+    }
+
+    @Test
+    void givenEmployeeObject_whenUpdateByIdAndVersion_thenReturnNewVersion(){
+
+        //-- Given
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+
+        //-- When
+        Optional<Long> version = employeeRepository.updateByIdAndVersion(savedEmployee.getId(),
+                savedEmployee.getVersion(), "Anselm", "Clave", "anselm@clave.com");
+        Optional<Long> staleVersion = employeeRepository.updateByIdAndVersion(savedEmployee.getId(),
+                savedEmployee.getVersion(), "Pablo", "Picapiedra", "pablo@email.com");
+
+        //-- Then
+        assertThat(version).contains(savedEmployee.getVersion() + 1);
+        assertThat(staleVersion).isEmpty();
+        assertThat(employeeRepository.findViewById(savedEmployee.getId()))
+                .hasValueSatisfying(view -> assertThat(view.email()).isEqualTo("anselm@clave.com"));
+    }
+
+    @Test
+    void givenEmployeeObject_whenSoftDeleteById_thenHiddenFromReadsButEmailTaken(){
+
+        //-- Given
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+
+        //-- When
+        Optional<Long> deletedId = employeeRepository.softDeleteById(savedEmployee.getId());
+        Optional<Long> deletedAgain = employeeRepository.softDeleteById(savedEmployee.getId());
+
+        //-- Then
+        assertThat(deletedId).contains(savedEmployee.getId());
+        assertThat(deletedAgain).isEmpty();
+        assertThat(employeeRepository.findViewById(savedEmployee.getId())).isEmpty();
+        assertThat(employeeRepository.findExistingEmails(List.of("perico@palotes.com"))).isEmpty();
+    }
+
+    @Test
+    void givenSoftDeletedEmployee_whenSaveWithSameEmail_thenSaved(){
+
+        //-- Given
+        Employee deletedEmployee = employeeRepository.saveAndFlush(employee);
+        employeeRepository.softDeleteById(deletedEmployee.getId());
+
+        //-- When
+        Employee recreated = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Perico")
+                .lastName("Palotes")
+                .email("perico@palotes.com")
+                .build());
+
+        //-- Then
+        assertThat(recreated.getId()).isNotEqualTo(deletedEmployee.getId());
+        assertThat(employeeRepository.findByEmail("perico@palotes.com"))
+                .hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(recreated.getId()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.jmas.springboottesting.search;
+
+import com.jmas.springboottesting.dto.EmployeeView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex searchIndex;
+
+    @BeforeEach
+    void setup() {
+        searchIndex = new EmployeeSearchIndex();
+        searchIndex.put(new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L));
+        searchIndex.put(new EmployeeView(2L, "Anselm", "Clavé", "anselm@clave.com", 0L));
+        searchIndex.put(new EmployeeView(3L, "Pablo", "Picapiedra", "pablo@email.com", 0L));
+    }
+
+    @Test
+    void givenNamePrefix_whenSearch_thenReturnRankedMatches(){
+
+        //-- Given
+        String query = "pa";
+
+        //-- When
+        List<EmployeeView> employees = searchIndex.search(query, 10);
+
+        //-- Then
+        assertThat(employees).extracting(EmployeeView::id).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void givenSeveralWords_whenSearch_thenEveryWordHasToMatch(){
+
+        //-- Given
+        String query = "Clave ans";
+
+        //-- When
+        List<EmployeeView> employees = searchIndex.search(query, 10);
+
+        //-- Then
+        assertThat(employees).extracting(EmployeeView::id).containsExactly(2L);
+    }
+
+    @Test
+    void givenUpdatedAndRemovedEmployees_whenSearch_thenIndexFollowsTheWrites(){
+
+        //-- Given
+        searchIndex.put(new EmployeeView(1L, "Perico", "Delgado", "perico@delgado.com", 1L));
+        searchIndex.remove(3L);
+
+        //-- When
+        List<EmployeeView> byOldName = searchIndex.search("palotes", 10);
+        List<EmployeeView> byNewName = searchIndex.search("delg", 10);
+        List<EmployeeView> removed = searchIndex.search("pablo", 10);
+
+        //-- Then
+        assertThat(byOldName).isEmpty();
+        assertThat(byNewName).extracting(EmployeeView::id).containsExactly(1L);
+        assertThat(removed).isEmpty();
+    }
+
+    @Test
+    void givenStaleVersion_whenPut_thenIndexKeepsTheNewerEmployee(){
+
+        //-- Given
+        searchIndex.put(new EmployeeView(1L, "Perico", "Delgado", "perico@delgado.com", 2L));
+
+        //-- When
+        searchIndex.put(new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 1L));
+
+        //-- Then
+        assertThat(searchIndex.search("delgado", 10)).extracting(EmployeeView::id).containsExactly(1L);
+    }
+}
@@ -0,0 +1,80 @@
+package com.jmas.springboottesting.service;
+
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rough throughput comparison between the single-item create path and the batch endpoint.
+ * Not part of the regular test run, execute it explicitly with
+ * {@code ./mvnw test -Dtest=EmployeeBatchInsertIT -Dspring.jpa.show-sql=false}.
+ */
+@SpringBootTest
+class EmployeeBatchInsertIT {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeBatchInsertIT.class);
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenThousandsOfEmployees_whenSaveEmployees_thenFasterThanSingleInserts(){
+
+        //-- Given
+        List<Employee> singles = employees("single");
+        List<Employee> batch = employees("batch");
+
+        //-- When
+        long singleStart = System.nanoTime();
+        singles.forEach(employeeService::saveEmployee);
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(batch);
+        long batchNanos = System.nanoTime() - batchStart;
+
+        //-- Then
+        log.info("single inserts: {} rows/s, batch insert: {} rows/s",
+                String.format("%.0f", rowsPerSecond(singleNanos)), String.format("%.0f", rowsPerSecond(batchNanos)));
+        assertThat(results).allMatch(result -> result.status() == EmployeeBatchResult.Status.CREATED);
+        assertThat(employeeRepository.count()).isEqualTo(2L * ROWS);
+    }
+
+    private static List<Employee> employees( String prefix ) {
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email(prefix + i + "@mail.com")
+                    .build());
+        }
+        return employees;
+    }
+
+    private static double rowsPerSecond( long nanos ) {
+        return ROWS / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+}
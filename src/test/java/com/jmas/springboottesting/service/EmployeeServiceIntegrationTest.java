@@ -0,0 +1,101 @@
+package com.jmas.springboottesting.service;
+
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeServiceIntegrationTest {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenConcurrentCreatesWithSameEmail_whenSaveEmployee_thenOnlyOneSucceeds() throws Exception {
+
+        //-- Given
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Employee>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            Employee employee = Employee.builder()
+                    .firstName("Perico")
+                    .lastName("Palotes" + i)
+                    .email("perico@palotes.com")
+                    .build();
+            futures.add(executor.submit(() -> {
+                start.await();
+                return employeeService.saveEmployee(employee);
+            }));
+        }
+
+        //-- When
+        start.countDown();
+        int created = 0;
+        int rejected = 0;
+        for (Future<Employee> future : futures) {
+            try {
+                future.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(EmployeeAlreadyExistsException.class);
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        //-- Then
+        assertThat(created).isEqualTo(1);
+        assertThat(rejected).isEqualTo(CONCURRENT_REQUESTS - 1);
+        assertThat(employeeRepository.findByEmail("perico@palotes.com")).isPresent();
+    }
+
+    @Test
+    void givenDeletedEmployee_whenSaveEmployeeWithSameEmail_thenCreatedWithoutWaitingForThePurge(){
+
+        //-- Given
+        Employee deleted = employeeService.saveEmployee(employee("Palotes"));
+        employeeService.deleteEmployee(deleted.getId());
+
+        //-- When
+        Employee recreated = employeeService.saveEmployee(employee("Clave"));
+
+        //-- Then
+        assertThat(recreated.getId()).isNotEqualTo(deleted.getId());
+        assertThat(employeeService.getEmployeeViewById(recreated.getId())).isPresent();
+        assertThat(employeeService.getEmployeeViewById(deleted.getId())).isEmpty();
+    }
+
+    // an email no other test uses, the employee cache outlives the cleanup of tests sharing the context
+    private static Employee employee( String lastName ) {
+        return Employee.builder()
+                .firstName("Anselm")
+                .lastName(lastName)
+                .email("recreated@mail.com")
+                .build();
+    }
+}
@@ -1,25 +1,48 @@
 package com.jmas.springboottesting.service;
 
+import com.jmas.springboottesting.cache.EmployeeCache;
+import com.jmas.springboottesting.cache.SecondLevelCacheEvictor;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeLookupResult;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
 import com.jmas.springboottesting.exception.ResourceNotFoundException;
 import com.jmas.springboottesting.model.Employee;
 import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.search.EmployeeSearchIndex;
 import com.jmas.springboottesting.service.impl.EmployeeServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +50,18 @@ class EmployeeServiceTest {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1));
+    @Mock
+    private SecondLevelCacheEvictor secondLevelCacheEvictor;
+    @Spy
+    private EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex();
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     @InjectMocks
     private EmployeeServiceImpl employeeService;
     private Employee employee;
@@ -47,29 +82,77 @@ class EmployeeServiceTest {
     void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject(){
 
         //-- Given
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         //-- When
         Employee employeeBD = employeeService.saveEmployee(employee);
 
         //-- Then
         assertThat(employeeBD).isNotNull();
+        verify(eventPublisher).publishEvent(EmployeeEvent.created(EmployeeView.of(employee)));
     }
 
     @Test
     void givenExistingEmail_whenSaveEmployee_thenThrowsException(){
 
         //-- Given
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("duplicate",
+                        new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UX_EMPLOYEES_EMAIL")));
+
+        //-- When
+        assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.saveEmployee(employee));
+
+        //-- Then
+        verify(employeeRepository).saveAndFlush(employee);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void givenCachedEmail_whenSaveEmployee_thenThrowsExceptionWithoutInsert(){
+
+        //-- Given
+        employeeCache.put(EmployeeView.of(employee));
 
         //-- When
         assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee));
 
         //-- Then
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void givenEmployeesWithDuplicates_whenSaveEmployees_thenReturnPerItemResults(){
+
+        //-- Given
+        Employee existing = Employee.builder()
+                .firstName("Anselm")
+                .lastName("Clave")
+                .email("anselm@clave.com")
+                .build();
+        Employee repeated = Employee.builder()
+                .firstName("Perico")
+                .lastName("Palotes")
+                .email("perico@palotes.com")
+                .build();
+        Employee invalid = Employee.builder()
+                .firstName("Pablo")
+                .build();
+        given(employeeRepository.findExistingEmails(anyCollection()))
+                .willReturn(Set.of("anselm@clave.com"));
+
+        //-- When
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(List.of(employee, existing, repeated, invalid));
+
+        //-- Then
+        assertThat(results).extracting(EmployeeBatchResult::status).containsExactly(
+                EmployeeBatchResult.Status.CREATED,
+                EmployeeBatchResult.Status.DUPLICATE,
+                EmployeeBatchResult.Status.DUPLICATE,
+                EmployeeBatchResult.Status.INVALID);
+        assertThat(results.get(0).id()).isEqualTo(employee.getId());
+        verify(employeeRepository, times(1)).saveAll(List.of(employee));
+        verify(entityManager, times(1)).flush();
     }
 
     @Test
@@ -82,10 +165,10 @@ class EmployeeServiceTest {
                 .lastName("Picapiedra")
                 .email("pablo@email.com")
                 .build();
-        given(employeeRepository.findAll()).willReturn(List.of(employee,employee1));
+        given(employeeRepository.findAllViews()).willReturn(List.of(EmployeeView.of(employee),EmployeeView.of(employee1)));
 
         //-- When
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         //-- Then
         assertThat(employeeList).isNotNull()
@@ -96,15 +179,45 @@ class EmployeeServiceTest {
     void givenEmptyEmployeesList_whenGetAllEmployees_thenReturnEmptyEmployeesList(){
 
         //-- Given
-        given(employeeRepository.findAll()).willReturn(List.of());
+        given(employeeRepository.findAllViews()).willReturn(List.of());
 
         //-- When
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         //-- Then
         assertThat(employeeList).isEmpty();
     }
 
+    @Test
+    void givenLastSeenId_whenGetEmployeesAfter_thenReturnNextPage(){
+
+        //-- Given
+        EmployeeView employeeView = EmployeeView.of(employee);
+        given(employeeRepository.findViewsAfter(eq(0L), any(Pageable.class)))
+                .willReturn(List.of(employeeView));
+
+        //-- When
+        List<EmployeeView> employeeList = employeeService.getEmployeesAfter(0L, 10);
+
+        //-- Then
+        assertThat(employeeList).containsExactly(employeeView);
+    }
+
+    @Test
+    void givenEmployeesStream_whenStreamAllEmployees_thenEveryEmployeeIsHandedOver(){
+
+        //-- Given
+        EmployeeView employeeView = EmployeeView.of(employee);
+        given(employeeRepository.streamAllViews()).willReturn(Stream.of(employeeView));
+        List<EmployeeView> streamed = new ArrayList<>();
+
+        //-- When
+        employeeService.streamAllEmployees(streamed::add);
+
+        //-- Then
+        assertThat(streamed).containsExactly(employeeView);
+    }
+
     @Test
     void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject(){
 
@@ -118,35 +231,139 @@ class EmployeeServiceTest {
         assertTrue(optEmployee.isPresent());
     }
 
+    @Test
+    void givenCachedEmployee_whenGetEmployeeViewById_thenRepositoryIsQueriedOnce(){
+
+        //-- Given
+        EmployeeView employeeView = EmployeeView.of(employee);
+        given(employeeRepository.findViewById(1L)).willReturn(Optional.of(employeeView));
+
+        //-- When
+        employeeService.getEmployeeViewById(employee.getId());
+        Optional<EmployeeView> optEmployee = employeeService.getEmployeeViewById(employee.getId());
+
+        //-- Then
+        assertThat(optEmployee).contains(employeeView);
+        verify(employeeRepository, times(1)).findViewById(1L);
+    }
+
+    @Test
+    void givenCachedEmployee_whenGetEmployeeVersion_thenRepositoryIsNotQueried(){
+
+        //-- Given
+        employee.setVersion(3L);
+        employeeCache.put(EmployeeView.of(employee));
+
+        //-- When
+        Optional<Long> version = employeeService.getEmployeeVersion(employee.getId());
+
+        //-- Then
+        assertThat(version).contains(3L);
+        verify(employeeRepository, never()).findVersionById(anyLong());
+    }
+
+    @Test
+    void givenCachedEmployee_whenDeleteEmployee_thenCacheIsInvalidated(){
+
+        //-- Given
+        given(employeeRepository.findViewById(1L)).willReturn(Optional.of(EmployeeView.of(employee)), Optional.empty());
+        given(employeeRepository.softDeleteById(1L)).willReturn(Optional.of(1L));
+        employeeService.getEmployeeViewById(employee.getId());
+
+        //-- When
+        employeeService.deleteEmployee(employee.getId());
+        Optional<EmployeeView> optEmployee = employeeService.getEmployeeViewById(employee.getId());
+
+        //-- Then
+        assertThat(optEmployee).isEmpty();
+        verify(employeeRepository, times(2)).findViewById(1L);
+    }
+
+    @Test
+    void givenCachedAndMissingIds_whenGetEmployeesByIds_thenOnlyMissesQueriedInRequestOrder(){
+
+        //-- Given
+        EmployeeView cached = new EmployeeView(1L, "Perico", "Palotes", "perico@palotes.com", 0L);
+        EmployeeView stored = new EmployeeView(2L, "Juan", "Nadie", "juan@nadie.com", 0L);
+        employeeCache.put(cached);
+        given(employeeRepository.findViewsByIds(List.of(3L, 2L))).willReturn(List.of(stored));
+
+        //-- When
+        List<EmployeeLookupResult> results = employeeService.getEmployeesByIds(List.of(3L, 1L, 2L, 1L));
+
+        //-- Then
+        assertThat(results).containsExactly(
+                EmployeeLookupResult.missing(3L),
+                EmployeeLookupResult.found(cached),
+                EmployeeLookupResult.found(stored),
+                EmployeeLookupResult.found(cached));
+        assertThat(employeeCache.getIfPresent(2L)).contains(stored);
+    }
+
     @Test
     void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee(){
 
         //-- Given
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.updateById(1L, "Anselm", "Palotes", "anselm@gmail.com")).willReturn(Optional.of(1L));
         employee.setEmail("anselm@gmail.com");
         employee.setFirstName("Anselm");
 
         //-- When
-        Employee employeeBD = employeeService.updateEmployee(employee);
+        Optional<EmployeeView> employeeBD = employeeService.updateEmployee(employee.getId(), employee);
 
         //-- Then
-        assertThat(employeeBD).isNotNull();
-        assertThat(employeeBD.getEmail()).isEqualTo("anselm@gmail.com");
-        assertThat(employeeBD.getFirstName()).isEqualTo("Anselm");
+        assertThat(employeeBD).isPresent();
+        assertThat(employeeBD.get().email()).isEqualTo("anselm@gmail.com");
+        assertThat(employeeBD.get().firstName()).isEqualTo("Anselm");
+        assertThat(employeeBD.get().version()).isEqualTo(1L);
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void givenStaleVersion_whenUpdateEmployee_thenThrowsException(){
+
+        //-- Given
+        given(employeeRepository.updateByIdAndVersion(1L, 0L, "Perico", "Palotes", "perico@palotes.com"))
+                .willReturn(Optional.empty());
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(2L));
+
+        //-- When
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> employeeService.updateEmployee(employee.getId(), employee, 0L));
+
+        //-- Then
+        assertThat(employeeCache.getIfPresent(employee.getId())).isEmpty();
     }
 
     @Test
-    void givenEmployeeId_whenDeleteEmployee_thenNothing(){
+    void givenEmployeeId_whenDeleteEmployee_thenSoftDeletedAndEventPublished(){
 
         //-- Given
         long employeeId = 1L;
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.softDeleteById(employeeId)).willReturn(Optional.of(1L));
+
+        //-- When
+        boolean deleted = employeeService.deleteEmployee(employeeId);
+
+        //-- Then
+        assertTrue(deleted);
+        verify(employeeRepository, never()).deleteById(anyLong());
+        verify(secondLevelCacheEvictor).evictEmployee(employeeId);
+        verify(eventPublisher).publishEvent(EmployeeEvent.deleted(employeeId));
+    }
+
+    @Test
+    void givenMissingEmployeeId_whenDeleteEmployee_thenFalse(){
+
+        //-- Given
+        given(employeeRepository.softDeleteById(1L)).willReturn(Optional.empty());
 
         //-- When
-        employeeService.deleteEmployee(employeeId);
+        boolean deleted = employeeService.deleteEmployee(1L);
 
         //-- Then
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        assertThat(deleted).isFalse();
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.jmas.springboottesting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeImportResult;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.impl.EmployeeTransferServiceImpl;
+import com.jmas.springboottesting.shard.EmployeeShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeTransferServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<Employee>> chunkCaptor;
+
+    private EmployeeTransferService transferService;
+
+    @BeforeEach
+    void setup() {
+        transferService = new EmployeeTransferServiceImpl(employeeService, jdbcTemplate, transactionManager,
+                new EmployeeShardRouter(1, 1_000_000_000_000L), new ObjectMapper());
+    }
+
+    @Test
+    void givenCsvAndOffset_whenImportEmployees_thenRowsAfterTheOffsetAreSaved(){
+
+        //-- Given
+        String csv = """
+                id,firstName,lastName,email,version
+                1,Perico,Palotes,perico@palotes.com,0
+                2,Anselm,Clave,anselm@clave.com,0
+                3,Pablo,Picapiedra,pablo@email.com,0
+                """;
+        given(employeeService.saveEmployees(anyList())).willReturn(List.of(
+                EmployeeBatchResult.created(0, "anselm@clave.com", 10L),
+                EmployeeBatchResult.rejected(1, "pablo@email.com", EmployeeBatchResult.Status.DUPLICATE)));
+
+        //-- When
+        EmployeeImportResult result = transferService.importEmployees(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), EmployeeTransferService.Format.CSV, 1);
+
+        //-- Then
+        verify(employeeService).saveEmployees(chunkCaptor.capture());
+        assertThat(chunkCaptor.getValue()).extracting(Employee::getEmail).containsExactly("anselm@clave.com", "pablo@email.com");
+        assertThat(chunkCaptor.getValue()).extracting(Employee::getId).containsOnly(0L);
+        assertThat(result.complete()).isTrue();
+        assertThat(result.nextOffset()).isEqualTo(3);
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void givenMalformedNdjson_whenImportEmployees_thenStopsWithResumableOffset(){
+
+        //-- Given
+        String ndjson = """
+                {"firstName":"Perico","lastName":"Palotes","email":"perico@palotes.com"}
+                {"firstName":"Anselm",
+                """;
+
+        //-- When
+        EmployeeImportResult result = transferService.importEmployees(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), EmployeeTransferService.Format.NDJSON, 0);
+
+        //-- Then
+        assertThat(result.complete()).isFalse();
+        assertThat(result.nextOffset()).isZero();
+        assertThat(result.error()).isNotBlank();
+        verify(employeeService, never()).saveEmployees(anyList());
+    }
+}
@@ -0,0 +1,204 @@
+package com.jmas.springboottesting.shard;
+
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeListVersion;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("sharded")
+class ShardedEmployeeServiceIntegrationTest {
+
+    private static final int EMPLOYEES = 40;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeShardRouter shardRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        shardRouter.shards().forEach(shard -> ShardContext.runOn(shard, () -> {
+            employeeRepository.deleteAllInBatch();
+            jdbcTemplate.update("delete from employee_emails");
+        }));
+    }
+
+    @Test
+    void givenEmployees_whenSaveEmployees_thenEachRowIsOnItsEmailShardWithinItsIdRange(){
+
+        //-- Given
+        List<Employee> employees = employees();
+
+        //-- When
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(employees);
+
+        //-- Then
+        assertThat(results).extracting(EmployeeBatchResult::index)
+                .containsExactlyElementsOf(IntStream.range(0, EMPLOYEES).boxed().toList());
+        assertThat(results).extracting(EmployeeBatchResult::status).containsOnly(EmployeeBatchResult.Status.CREATED);
+        for (EmployeeBatchResult result : results) {
+            int shard = shardRouter.shardForEmail(result.email());
+            assertThat(shardRouter.shardForId(result.id())).isEqualTo(shard);
+            assertThat(ShardContext.callOn(shard, () -> jdbcTemplate.queryForObject(
+                    "select count(*) from employees where id = ?", Long.class, result.id()))).isEqualTo(1L);
+        }
+        assertThat(results.stream().map(result -> shardRouter.shardForId(result.id())).distinct().count()).isGreaterThan(1);
+    }
+
+    @Test
+    void givenEmployeesOnEveryShard_whenGetAllEmployees_thenAllInIdOrder(){
+
+        //-- Given
+        EmployeeListVersion before = employeeService.getEmployeesVersion();
+        employeeService.saveEmployees(employees());
+
+        //-- When
+        List<EmployeeView> all = employeeService.getAllEmployees();
+
+        //-- Then
+        assertThat(all).hasSize(EMPLOYEES).isSortedAccordingTo(Comparator.comparingLong(EmployeeView::id));
+        assertThat(all).extracting(employee -> shardRouter.shardForId(employee.id())).containsAll(List.of(0, 1, 2, 3));
+        assertThat(employeeService.getEmployeesVersion().version()).isEqualTo(before.version() + EMPLOYEES);
+        all.forEach(employee -> assertThat(employeeService.getEmployeeViewById(employee.id())).contains(employee));
+    }
+
+    @Test
+    void givenEmployeesOnEveryShard_whenGetEmployeesAfter_thenPagesCrossShards(){
+
+        //-- Given
+        employeeService.saveEmployees(employees());
+
+        //-- When
+        List<EmployeeView> paged = new ArrayList<>();
+        List<EmployeeView> page;
+        long afterId = 0;
+        do {
+            page = employeeService.getEmployeesAfter(afterId, 7);
+            paged.addAll(page);
+            afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).id();
+        } while (page.size() == 7);
+
+        //-- Then
+        assertThat(paged).containsExactlyElementsOf(employeeService.getAllEmployees());
+    }
+
+    @Test
+    void givenEmployee_whenUpdateToEmailOfAnotherShard_thenKeepsItsIdAndTheEmailStaysUnique(){
+
+        //-- Given
+        Employee saved = employeeService.saveEmployee(employee("ada.shard@mail.com"));
+        int shard = shardRouter.shardForId(saved.getId());
+        String otherShardEmail = IntStream.range(0, EMPLOYEES)
+                .mapToObj(i -> "moved" + i + "@mail.com")
+                .filter(email -> shardRouter.shardForEmail(email) != shard)
+                .findFirst()
+                .orElseThrow();
+
+        //-- When
+        Optional<EmployeeView> updated = employeeService.updateEmployee(saved.getId(), employee(otherShardEmail));
+
+        //-- Then
+        assertThat(updated).get().extracting(EmployeeView::id, EmployeeView::email)
+                .containsExactly(saved.getId(), otherShardEmail);
+        assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.saveEmployee(employee(otherShardEmail)));
+        assertThat(employeeService.saveEmployees(List.of(employee(otherShardEmail))))
+                .extracting(EmployeeBatchResult::status).containsExactly(EmployeeBatchResult.Status.DUPLICATE);
+        assertThat(employeeService.saveEmployee(employee(saved.getEmail())).getId()).isNotEqualTo(saved.getId());
+    }
+
+    @Test
+    void givenEmployeesOnTwoShards_whenUpdateToTheOthersEmail_thenRejected(){
+
+        //-- Given
+        Employee saved = employeeService.saveEmployee(employee("ada.taken@mail.com"));
+        Employee other = IntStream.range(0, EMPLOYEES)
+                .mapToObj(i -> "taken" + i + "@mail.com")
+                .filter(email -> shardRouter.shardForEmail(email) != shardRouter.shardForId(saved.getId()))
+                .findFirst()
+                .map(email -> employeeService.saveEmployee(employee(email)))
+                .orElseThrow();
+
+        //-- When
+        assertThrows(EmployeeAlreadyExistsException.class,
+                () -> employeeService.updateEmployee(saved.getId(), employee(other.getEmail())));
+
+        //-- Then
+        assertThat(employeeService.getEmployeeViewById(saved.getId())).get()
+                .extracting(EmployeeView::email).isEqualTo(saved.getEmail());
+    }
+
+    @Test
+    void givenUnknownId_whenUpdateToEmailOfAnotherShard_thenEmpty(){
+
+        //-- When
+        Optional<EmployeeView> updated = employeeService.updateEmployee(1L, employee("nobody@mail.com"));
+
+        //-- Then
+        assertThat(updated).isEmpty();
+        assertThat(employeeService.saveEmployee(employee("nobody@mail.com")).getId()).isPositive();
+    }
+
+    @Test
+    void givenEmployeeWithMovedEmail_whenDeleted_thenTheEmailIsFree(){
+
+        //-- Given
+        Employee saved = employeeService.saveEmployee(employee("ada.deleted@mail.com"));
+        String otherShardEmail = IntStream.range(0, EMPLOYEES)
+                .mapToObj(i -> "released" + i + "@mail.com")
+                .filter(email -> shardRouter.shardForEmail(email) != shardRouter.shardForId(saved.getId()))
+                .findFirst()
+                .orElseThrow();
+        employeeService.updateEmployee(saved.getId(), employee(otherShardEmail));
+
+        //-- When
+        boolean deleted = employeeService.deleteEmployee(saved.getId());
+
+        //-- Then
+        assertThat(deleted).isTrue();
+        assertThat(employeeService.saveEmployee(employee(otherShardEmail)).getId()).isNotEqualTo(saved.getId());
+    }
+
+    private static Employee employee( String email ) {
+        return Employee.builder()
+                .firstName("Ada")
+                .lastName("Shard")
+                .email(email)
+                .build();
+    }
+
+    private static List<Employee> employees() {
+        return IntStream.range(0, EMPLOYEES)
+                .mapToObj(i -> Employee.builder()
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .email("employee" + i + "@mail.com")
+                        .build())
+                .toList();
+    }
+}
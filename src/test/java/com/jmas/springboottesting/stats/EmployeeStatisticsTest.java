@@ -0,0 +1,154 @@
+package com.jmas.springboottesting.stats;
+
+import com.jmas.springboottesting.config.RepositoryConfig;
+import com.jmas.springboottesting.dto.EmployeeStats;
+import com.jmas.springboottesting.dto.EmployeeView;
+import com.jmas.springboottesting.event.EmployeeEvent;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.repository.EmployeeRepository;
+import com.jmas.springboottesting.service.EmployeeService;
+import com.jmas.springboottesting.shard.EmployeeShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.entry;
+
+@DataJpaTest
+@Import(RepositoryConfig.class)
+class EmployeeStatisticsTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeStatistics statistics;
+
+    @BeforeEach
+    void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = new EmployeeStatistics(Mockito.mock(EmployeeService.class), employeeRepository,
+                new EmployeeShardRouter(1, 1_000_000_000_000L), meterRegistry, 2);
+    }
+
+    @Test
+    void givenEmployeeEvents_whenSnapshot_thenCountsFollowCreatesUpdatesAndDeletes(){
+
+        //-- Given
+        statistics.onEmployeeEvent(EmployeeEvent.created(new EmployeeView(1L, "Perico", "Palotes", "perico@Mail.com", 0L)));
+        statistics.onEmployeeEvent(EmployeeEvent.created(new EmployeeView(2L, "Anselm", "Clave", "anselm@mail.com", 0L)));
+        statistics.onEmployeeEvent(EmployeeEvent.created(new EmployeeView(3L, "Juan", "Perez", "juan@other.org", 0L)));
+        statistics.onEmployeeEvent(EmployeeEvent.updated(new EmployeeView(2L, "Anselm", "Clave", "anselm@other.org", 1L)));
+        statistics.onEmployeeEvent(EmployeeEvent.deleted(3L));
+
+        //-- When
+        EmployeeStats stats = statistics.snapshot();
+
+        //-- Then
+        assertThat(stats.total()).isEqualTo(2L);
+        assertThat(stats.byEmailDomain()).containsOnly(entry("mail.com", 1L), entry("other.org", 1L));
+        assertThat(stats.byLastNameInitial()).containsOnly(entry("C", 1L), entry("P", 1L));
+    }
+
+    @Test
+    void givenMoreEmployeesThanTracked_whenUpdateEveryone_thenReconcileMovesTheUntrackedCounts(){
+
+        //-- Given
+        statistics.reconcile();
+        List<Employee> employees = Stream.of("perico", "anselm", "juan", "ada")
+                .map(name -> employeeRepository.save(Employee.builder().firstName(name).lastName("Palotes")
+                        .email(name + "@mail.com").build()))
+                .toList();
+        employees.forEach(employee -> statistics.onEmployeeEvent(EmployeeEvent.created(EmployeeView.of(employee))));
+
+        //-- When
+        employees.forEach(employee -> {
+            employee.setEmail(employee.getFirstName() + "@other.org");
+            statistics.onEmployeeEvent(EmployeeEvent.updated(EmployeeView.of(employeeRepository.save(employee))));
+        });
+        employeeRepository.flush();
+        statistics.reconcile();
+        statistics.reconcile();
+
+        //-- Then
+        EmployeeStats stats = statistics.snapshot();
+        assertThat(stats.total()).isEqualTo(4L);
+        assertThat(stats.byEmailDomain()).containsOnly(entry("other.org", 4L));
+    }
+
+    @Test
+    void givenEmployeesInTheTable_whenFirstReconcile_thenCountersAreSeeded(){
+
+        //-- Given
+        employeeRepository.save(Employee.builder().firstName("Perico").lastName("Palotes").email("perico@mail.com").build());
+        employeeRepository.save(Employee.builder().firstName("Anselm").lastName("Clave").email("anselm@Other.org").build());
+        employeeRepository.flush();
+
+        //-- When
+        statistics.reconcile();
+
+        //-- Then
+        EmployeeStats stats = statistics.snapshot();
+        assertThat(stats.total()).isEqualTo(2L);
+        assertThat(stats.byEmailDomain()).containsOnly(entry("mail.com", 1L), entry("other.org", 1L));
+        assertThat(stats.byLastNameInitial()).containsOnly(entry("C", 1L), entry("P", 1L));
+        assertThat(meterRegistry.counter("employees.stats.corrections").count()).isZero();
+    }
+
+    @Test
+    void givenCountersOutOfSync_whenReconcileTwice_thenCountsMatchTheTable(){
+
+        //-- Given
+        statistics.reconcile();
+        employeeRepository.save(Employee.builder().firstName("Perico").lastName("Palotes").email("perico@mail.com").build());
+        employeeRepository.save(Employee.builder().firstName("Anselm").lastName("Clave").email("anselm@Other.org").build());
+        employeeRepository.flush();
+        // an event for a row the table does not have
+        statistics.onEmployeeEvent(EmployeeEvent.created(new EmployeeView(99L, "Juan", "Perez", "juan@gone.net", 0L)));
+
+        //-- When
+        statistics.reconcile();
+        statistics.reconcile();
+
+        //-- Then
+        EmployeeStats stats = statistics.snapshot();
+        assertThat(stats.total()).isEqualTo(2L);
+        assertThat(stats.byEmailDomain()).containsOnly(entry("mail.com", 1L), entry("other.org", 1L));
+        assertThat(stats.byLastNameInitial()).containsOnly(entry("C", 1L), entry("P", 1L));
+        assertThat(meterRegistry.counter("employees.stats.corrections").count()).isPositive();
+    }
+
+    @Test
+    void givenWriteCountedAfterTheFirstReconcile_whenReconcileAgain_thenItIsNotCountedTwice(){
+
+        //-- Given
+        statistics.reconcile();
+        Employee saved = employeeRepository.saveAndFlush(
+                Employee.builder().firstName("Perico").lastName("Palotes").email("perico@mail.com").build());
+        // the row is in the table, its event not applied yet
+        statistics.reconcile();
+        statistics.onEmployeeEvent(EmployeeEvent.created(EmployeeView.of(saved)));
+
+        //-- When
+        statistics.reconcile();
+
+        //-- Then
+        EmployeeStats stats = statistics.snapshot();
+        assertThat(stats.total()).isEqualTo(1L);
+        assertThat(stats.byEmailDomain()).containsOnly(entry("mail.com", 1L));
+        assertThat(stats.byLastNameInitial()).containsOnly(entry("P", 1L));
+        assertThat(meterRegistry.counter("employees.stats.corrections").count()).isZero();
+    }
+}
@@ -0,0 +1,104 @@
+package com.jmas.springboottesting.writebehind;
+
+import com.jmas.springboottesting.dto.EmployeeBatchResult;
+import com.jmas.springboottesting.dto.EmployeeWriteStatus;
+import com.jmas.springboottesting.exception.EmployeeAlreadyExistsException;
+import com.jmas.springboottesting.model.Employee;
+import com.jmas.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeWriteBehindQueueTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeWriteBehindQueue writeBehindQueue;
+
+    private Employee perico;
+
+    private Employee anselm;
+
+    @BeforeEach
+    void setup() {
+        writeBehindQueue = new EmployeeWriteBehindQueue(employeeService, 2, 10, Duration.ofMinutes(1));
+        perico = Employee.builder().firstName("Perico").lastName("Palotes").email("perico@palotes.com").build();
+        anselm = Employee.builder().firstName("Anselm").lastName("Clave").email("anselm@clave.com").build();
+    }
+
+    @Test
+    void givenQueuedCreates_whenDrain_thenOneBatchIsWrittenAndOutcomesRecorded(){
+
+        //-- Given
+        String created = writeBehindQueue.submit(perico).orElseThrow().trackingId();
+        String duplicate = writeBehindQueue.submit(anselm).orElseThrow().trackingId();
+        given(employeeService.saveEmployees(anyList())).willReturn(List.of(
+                EmployeeBatchResult.created(0, "perico@palotes.com", 1L),
+                EmployeeBatchResult.rejected(1, "anselm@clave.com", EmployeeBatchResult.Status.DUPLICATE)));
+
+        //-- When
+        int written = writeBehindQueue.drain();
+
+        //-- Then
+        assertThat(written).isEqualTo(2);
+        assertThat(writeBehindQueue.getStatus(created)).map(EmployeeWriteStatus::state).contains(EmployeeWriteStatus.State.CREATED);
+        assertThat(writeBehindQueue.getStatus(duplicate)).map(EmployeeWriteStatus::state).contains(EmployeeWriteStatus.State.DUPLICATE);
+        verify(employeeService, times(1)).saveEmployees(anyList());
+    }
+
+    @Test
+    void givenFullQueue_whenSubmit_thenCreateIsRejected(){
+
+        //-- Given
+        writeBehindQueue.submit(perico);
+        writeBehindQueue.submit(anselm);
+
+        //-- When
+        Optional<EmployeeWriteStatus> status = writeBehindQueue.submit(
+                Employee.builder().firstName("Pablo").lastName("Picapiedra").email("pablo@email.com").build());
+
+        //-- Then
+        assertThat(status).isEmpty();
+    }
+
+    @Test
+    void givenFailingBatch_whenDrain_thenCreatesAreRetriedOneByOne(){
+
+        //-- Given
+        String created = writeBehindQueue.submit(perico).orElseThrow().trackingId();
+        String duplicate = writeBehindQueue.submit(anselm).orElseThrow().trackingId();
+        given(employeeService.saveEmployees(anyList())).willThrow(new DataIntegrityViolationException("duplicate"));
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer(invocation -> {
+                    Employee employee = invocation.getArgument(0);
+                    if (employee.getEmail().equals("anselm@clave.com")) {
+                        throw new EmployeeAlreadyExistsException(employee.getEmail());
+                    }
+                    employee.setId(1L);
+                    return employee;
+                });
+
+        //-- When
+        writeBehindQueue.drain();
+
+        //-- Then
+        assertThat(writeBehindQueue.getStatus(created)).map(EmployeeWriteStatus::id).contains(1L);
+        assertThat(writeBehindQueue.getStatus(duplicate)).map(EmployeeWriteStatus::state).contains(EmployeeWriteStatus.State.DUPLICATE);
+    }
+}